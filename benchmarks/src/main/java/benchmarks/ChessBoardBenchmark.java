@@ -0,0 +1,67 @@
+package benchmarks;
+
+import chess.ChessBoard;
+import chess.Perft;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copying, comparing and hashing whole boards, which game deduplication and caching do
+ * constantly
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ChessBoardBenchmark {
+
+    private ChessBoard board;
+    private ChessBoard equalBoard;
+    private ChessBoard otherBoard;
+
+    @Setup
+    public void setUp() {
+        board = Perft.STANDARD_POSITIONS.get(1).game().getBoard();
+        equalBoard = new ChessBoard(board);
+        otherBoard = Perft.STANDARD_POSITIONS.get(5).game().getBoard();
+    }
+
+    @Benchmark
+    public ChessBoard copy() {
+        return new ChessBoard(board);
+    }
+
+    @Benchmark
+    public boolean equalBoards() {
+        return board.equals(equalBoard);
+    }
+
+    @Benchmark
+    public boolean unequalBoards() {
+        return board.equals(otherBoard);
+    }
+
+    @Benchmark
+    public int hashCodeBoard() {
+        return board.hashCode();
+    }
+
+    @Benchmark
+    public ChessBoard resetBoard() {
+        var fresh = new ChessBoard();
+        fresh.resetBoard();
+        return fresh;
+    }
+}
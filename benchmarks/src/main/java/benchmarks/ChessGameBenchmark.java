@@ -0,0 +1,112 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import chess.MoveList;
+import chess.Perft;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link ChessGame} operations the server runs on every move. {@code validMoves},
+ * {@code isInCheckmate} and {@code isInStalemate} are answered from the shared legal move
+ * cache once warmed up; {@code generateLegalMoves} never uses the cache and shows the
+ * cost of generating from scratch.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ChessGameBenchmark {
+
+    /**
+     * Both knights out and back again, which returns the game to where it started
+     */
+    private static final ChessMove[] KNIGHT_SHUFFLE = {
+            new ChessMove(new ChessPosition(1, 2), new ChessPosition(3, 3), null),
+            new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null),
+            new ChessMove(new ChessPosition(3, 3), new ChessPosition(1, 2), null),
+            new ChessMove(new ChessPosition(6, 6), new ChessPosition(8, 7), null),
+    };
+
+    private ChessGame middlegame;
+    private ChessGame opening;
+    private ChessGame checkmate;
+    private MoveList moves;
+
+    @Setup
+    public void setUp() throws InvalidMoveException {
+        middlegame = Perft.STANDARD_POSITIONS.get(1).game();
+        opening = new ChessGame();
+        checkmate = new ChessGame();
+        checkmate.makeMove(new ChessMove(new ChessPosition(2, 6), new ChessPosition(3, 6), null));
+        checkmate.makeMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+        checkmate.makeMove(new ChessMove(new ChessPosition(2, 7), new ChessPosition(4, 7), null));
+        checkmate.makeMove(new ChessMove(new ChessPosition(8, 4), new ChessPosition(4, 8), null));
+        moves = new MoveList();
+    }
+
+    @Benchmark
+    public void validMovesAllPieces(Blackhole blackhole) {
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                blackhole.consume(middlegame.validMoves(new ChessPosition(row, col)));
+            }
+        }
+    }
+
+    @Benchmark
+    public int generateLegalMoves() {
+        return middlegame.generateLegalMoves(moves);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(4)
+    public ChessGame makeMove() throws InvalidMoveException {
+        for (var move : KNIGHT_SHUFFLE) {
+            opening.makeMove(move);
+        }
+        return opening;
+    }
+
+    @Benchmark
+    public boolean isInCheck() {
+        return middlegame.isInCheck(ChessGame.TeamColor.WHITE);
+    }
+
+    @Benchmark
+    public boolean isInCheckmate() {
+        return checkmate.isInCheckmate(ChessGame.TeamColor.WHITE);
+    }
+
+    @Benchmark
+    public boolean isInStalemate() {
+        return middlegame.isInStalemate(ChessGame.TeamColor.WHITE);
+    }
+
+    @Benchmark
+    public ChessGame.GameStatus status() {
+        return middlegame.status();
+    }
+
+    @Benchmark
+    public long perft3() {
+        return Perft.perft(opening, 3);
+    }
+}
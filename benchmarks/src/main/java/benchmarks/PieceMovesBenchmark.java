@@ -0,0 +1,62 @@
+package benchmarks;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.Perft;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ChessPiece#pieceMoves} for each piece type, measured on a white piece of that
+ * type in the crowded Kiwipete middlegame position
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PieceMovesBenchmark {
+
+    @Param({"KING", "QUEEN", "BISHOP", "KNIGHT", "ROOK", "PAWN"})
+    public ChessPiece.PieceType type;
+
+    private ChessBoard board;
+    private ChessPiece piece;
+    private ChessPosition position;
+
+    @Setup
+    public void setUp() {
+        board = Perft.STANDARD_POSITIONS.get(1).game().getBoard();
+        for (int row = 1; row <= 8 && position == null; row++) {
+            for (int col = 1; col <= 8 && position == null; col++) {
+                var candidate = board.getPiece(new ChessPosition(row, col));
+                if (candidate != null && candidate.getPieceType() == type
+                        && candidate.getTeamColor() == ChessGame.TeamColor.WHITE) {
+                    piece = candidate;
+                    position = new ChessPosition(row, col);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public Collection<ChessMove> pieceMoves() {
+        return piece.pieceMoves(board, position);
+    }
+}
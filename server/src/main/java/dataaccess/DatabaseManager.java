@@ -0,0 +1,160 @@
+package dataaccess;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.sql.*;
+import java.util.Properties;
+
+public class DatabaseManager {
+    private static String databaseName;
+    private static String dbUsername;
+    private static String dbPassword;
+    private static String connectionUrl;
+    private static Properties poolProperties;
+
+    /*
+     * The connection pool, created the first time a connection is needed so that
+     * createDatabase can run before anything connects to the chess database. Borrowing
+     * only reads this field; the lock is taken just to create or close the pool.
+     */
+    private static volatile HikariDataSource dataSource;
+    private static final Object poolLock = new Object();
+
+    /*
+     * Load the database information for the db.properties file.
+     */
+    static {
+        loadPropertiesFromResources();
+    }
+
+    /**
+     * Creates the database if it does not already exist.
+     */
+    static public void createDatabase() throws DataAccessException {
+        var statement = "CREATE DATABASE IF NOT EXISTS " + databaseName;
+        try (var conn = DriverManager.getConnection(connectionUrl, dbUsername, dbPassword);
+             var preparedStatement = conn.prepareStatement(statement)) {
+            preparedStatement.executeUpdate();
+        } catch (SQLException ex) {
+            throw new DataAccessException("failed to create database", ex);
+        }
+    }
+
+    /**
+     * Borrows a connection to the database from the connection pool, with the catalog
+     * set to the database named in db.properties. Connections to the database should
+     * be short-lived, and you must close the connection when you are done with it,
+     * which returns it to the pool. The easiest way to do that is with a
+     * try-with-resource block.
+     * <br/>
+     * <code>
+     * try (var conn = DatabaseManager.getConnection()) {
+     * // execute SQL statements.
+     * }
+     * </code>
+     * A connection held longer than db.pool.leakDetectionThreshold milliseconds is
+     * logged as a probable leak.
+     */
+    static Connection getConnection() throws DataAccessException {
+        try {
+            //do not wrap the following line with a try-with-resources
+            return dataSource().getConnection();
+        } catch (SQLException ex) {
+            throw new DataAccessException("failed to get connection", ex);
+        }
+    }
+
+    /**
+     * Closes every pooled connection. The pool is opened again the next time a
+     * connection is needed. The old pool is closed outside the lock, so borrowers
+     * never wait on a slow close, but a borrow racing the close may fail.
+     */
+    static public void closePool() {
+        HikariDataSource closing;
+        synchronized (poolLock) {
+            closing = dataSource;
+            dataSource = null;
+        }
+        if (closing != null) {
+            closing.close();
+        }
+    }
+
+    /**
+     * @return the most connections the pool opens, from db.pool.maxSize
+     */
+    static public int maxPoolSize() {
+        return poolSetting("maxSize", 10);
+    }
+
+    private static HikariDataSource dataSource() {
+        var pool = dataSource;
+        if (pool == null) {
+            synchronized (poolLock) {
+                pool = dataSource;
+                if (pool == null) {
+                    pool = new HikariDataSource(poolConfig());
+                    dataSource = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    private static HikariConfig poolConfig() {
+        var config = new HikariConfig();
+        config.setPoolName("chess");
+        config.setJdbcUrl(connectionUrl);
+        config.setUsername(dbUsername);
+        config.setPassword(dbPassword);
+        config.setCatalog(databaseName);
+        config.setMinimumIdle(poolSetting("minIdle", 2));
+        config.setMaximumPoolSize(maxPoolSize());
+        config.setIdleTimeout(poolSetting("idleTimeout", 600_000));
+        config.setMaxLifetime(poolSetting("maxLifetime", 1_800_000));
+        config.setConnectionTimeout(poolSetting("connectionTimeout", 30_000));
+        config.setValidationTimeout(poolSetting("validationTimeout", 5_000));
+        config.setLeakDetectionThreshold(poolSetting("leakDetectionThreshold", 30_000));
+        // Each pooled connection keeps its own server-side prepared statements, so the
+        // DAOs' SQL is parsed once per connection rather than once per call, and
+        // executeBatch sends multi-row statements instead of one round trip per row
+        config.addDataSourceProperty("useServerPrepStmts", "true");
+        config.addDataSourceProperty("cachePrepStmts", "true");
+        config.addDataSourceProperty("prepStmtCacheSize", "250");
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+        config.addDataSourceProperty("rewriteBatchedStatements", "true");
+        // Let the server's first request open the pool even if MySQL is still starting
+        config.setInitializationFailTimeout(-1);
+        return config;
+    }
+
+    private static int poolSetting(String name, int defaultValue) {
+        var value = poolProperties.getProperty("db.pool." + name);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    private static void loadPropertiesFromResources() {
+        try (var propStream = Thread.currentThread().getContextClassLoader().getResourceAsStream("db.properties")) {
+            if (propStream == null) {
+                throw new Exception("Unable to load db.properties");
+            }
+            Properties props = new Properties();
+            props.load(propStream);
+            loadProperties(props);
+        } catch (Exception ex) {
+            throw new RuntimeException("unable to process db.properties", ex);
+        }
+    }
+
+    private static void loadProperties(Properties props) {
+        databaseName = props.getProperty("db.name");
+        dbUsername = props.getProperty("db.user");
+        dbPassword = props.getProperty("db.password");
+        poolProperties = props;
+
+        var host = props.getProperty("db.host");
+        var port = Integer.parseInt(props.getProperty("db.port"));
+        connectionUrl = String.format("jdbc:mysql://%s:%d", host, port);
+    }
+}
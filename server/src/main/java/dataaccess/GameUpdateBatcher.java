@@ -0,0 +1,198 @@
+package dataaccess;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Saves game state in batches.
+ * <p>
+ * Moves arriving for many games at once are queued and written together with one
+ * {@code executeBatch} in one transaction, rather than one round trip per move. Only the
+ * latest state of a game matters, so several updates to the same game that arrive
+ * before a write are coalesced into one row.
+ * <p>
+ * A batch is written once it holds {@code maxBatch} games or its oldest update has
+ * waited {@code maxDelay}, whichever comes first. A batch never holds more than
+ * {@code maxBatch} games; games that queue up beyond that while a write is running go
+ * into the batches that follow, which are written straight away.
+ */
+public class GameUpdateBatcher implements AutoCloseable {
+
+    public static final int DEFAULT_MAX_BATCH = 64;
+    public static final Duration DEFAULT_MAX_DELAY = Duration.ofMillis(5);
+
+    /**
+     * Where the writer gets its connections, normally {@link DatabaseManager}
+     */
+    interface ConnectionSource {
+        Connection getConnection() throws DataAccessException;
+    }
+
+    private final String updateSql;
+    private final ConnectionSource connections;
+    private final int maxBatch;
+    private final long maxDelayNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private LinkedHashMap<Integer, CompletableFuture<Void>> waiting = new LinkedHashMap<>();
+    private LinkedHashMap<Integer, String> states = new LinkedHashMap<>();
+    private boolean closed;
+
+    private final Thread writer;
+
+    /**
+     * @param updateSql an UPDATE statement taking the game's JSON as its first parameter
+     *                  and the game ID as its second
+     */
+    public GameUpdateBatcher(String updateSql) {
+        this(updateSql, DEFAULT_MAX_BATCH, DEFAULT_MAX_DELAY);
+    }
+
+    /**
+     * @param updateSql an UPDATE statement taking the game's JSON as its first parameter
+     *                  and the game ID as its second
+     * @param maxBatch  the most games written in one batch
+     * @param maxDelay  the longest an update waits for others to join its batch
+     */
+    public GameUpdateBatcher(String updateSql, int maxBatch, Duration maxDelay) {
+        this(updateSql, maxBatch, maxDelay, DatabaseManager::getConnection);
+    }
+
+    GameUpdateBatcher(String updateSql, int maxBatch, Duration maxDelay, ConnectionSource connections) {
+        if (maxBatch < 1) {
+            throw new IllegalArgumentException("Batches must hold at least one game");
+        }
+        this.updateSql = updateSql;
+        this.connections = connections;
+        this.maxBatch = maxBatch;
+        this.maxDelayNanos = maxDelay.toNanos();
+        writer = Thread.ofVirtual().name("game-update-batcher").start(this::writeBatches);
+    }
+
+    /**
+     * Queues a game's new state to be saved
+     *
+     * @param gameID    the game to update
+     * @param gameState the game as JSON
+     * @return completes once the state, or a later state of the same game, is committed.
+     * It completes exceptionally with a {@link DataAccessException} if the write fails.
+     */
+    public CompletableFuture<Void> update(int gameID, String gameState) {
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Game update batcher is closed");
+            }
+            states.put(gameID, gameState);
+            var done = waiting.computeIfAbsent(gameID, id -> new CompletableFuture<>());
+            changed.signal();
+            return done;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes whatever is still queued, then stops
+     */
+    @Override
+    public void close() throws InterruptedException {
+        lock.lock();
+        try {
+            closed = true;
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+        writer.join();
+    }
+
+    private void writeBatches() {
+        boolean backlog = false;
+        while (true) {
+            Map<Integer, String> batchStates;
+            Map<Integer, CompletableFuture<Void>> batchWaiting;
+            lock.lock();
+            try {
+                while (states.isEmpty() && !closed) {
+                    changed.awaitUninterruptibly();
+                }
+                if (states.isEmpty()) {
+                    return;
+                }
+                // Games left over from a full batch have already waited their turn
+                long wait = backlog ? 0 : maxDelayNanos;
+                while (!closed && states.size() < maxBatch && wait > 0) {
+                    wait = changed.awaitNanos(wait);
+                }
+                if (states.size() <= maxBatch) {
+                    batchStates = states;
+                    batchWaiting = waiting;
+                    states = new LinkedHashMap<>();
+                    waiting = new LinkedHashMap<>();
+                } else {
+                    batchStates = new LinkedHashMap<>();
+                    batchWaiting = new LinkedHashMap<>();
+                    var queued = states.entrySet().iterator();
+                    while (batchStates.size() < maxBatch) {
+                        var entry = queued.next();
+                        queued.remove();
+                        batchStates.put(entry.getKey(), entry.getValue());
+                        batchWaiting.put(entry.getKey(), waiting.remove(entry.getKey()));
+                    }
+                }
+                backlog = !states.isEmpty();
+            } catch (InterruptedException ex) {
+                // Only close stops the writer, and it never interrupts
+                continue;
+            } finally {
+                lock.unlock();
+            }
+            write(batchStates, batchWaiting);
+        }
+    }
+
+    private void write(Map<Integer, String> batchStates, Map<Integer, CompletableFuture<Void>> batchWaiting) {
+        try (var conn = connections.getConnection()) {
+            try (var statement = conn.prepareStatement(updateSql)) {
+                conn.setAutoCommit(false);
+                for (var entry : batchStates.entrySet()) {
+                    statement.setString(1, entry.getValue());
+                    statement.setInt(2, entry.getKey());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                conn.commit();
+            } catch (Exception ex) {
+                rollback(conn, ex);
+                throw ex;
+            }
+            batchWaiting.values().forEach(done -> done.complete(null));
+        } catch (Exception ex) {
+            // Any failure, not just an SQL error, must reach the callers waiting on this
+            // batch; the writer then carries on with the next batch
+            var failure = new DataAccessException("failed to save games", ex);
+            batchWaiting.values().forEach(done -> done.completeExceptionally(failure));
+        }
+    }
+
+    /**
+     * Undoes whatever part of a batch reached the database before it failed, rather than
+     * leaving that to the pool when the connection is returned
+     */
+    private static void rollback(Connection conn, Exception failure) {
+        try {
+            conn.rollback();
+        } catch (SQLException ex) {
+            failure.addSuppressed(ex);
+        }
+    }
+}
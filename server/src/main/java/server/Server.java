@@ -0,0 +1,109 @@
+package server;
+
+import dataaccess.DatabaseManager;
+import dataaccess.GameUpdateBatcher;
+import io.javalin.*;
+import io.javalin.http.Context;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * The chess HTTP server.
+ * <p>
+ * Jetty runs every handler on a virtual thread, so a handler blocked on the database
+ * parks cheaply instead of holding one of a few hundred platform threads. Because the
+ * number of requests in flight is then effectively unbounded, HTTP requests to the
+ * endpoints that use the database first take a permit from a fixed pool, which caps how
+ * many of them work against the database at once. The game update batcher's writer
+ * also borrows from the pool, one connection at a time, so by default there is one
+ * permit fewer than pooled connections: as long as each request uses one connection at
+ * a time and the pool has at least two, a request holding a permit never waits for a
+ * connection. WebSocket messages do not take permits.
+ */
+public class Server {
+
+    private static final String[] DATABASE_PATHS = {"/user", "/session", "/game", "/db"};
+    private static final String HOLDS_PERMIT = "holdsDatabasePermit";
+    private static final String UPDATE_GAME_SQL = "UPDATE game SET game = ? WHERE id = ?";
+
+    private final Javalin javalin;
+    private final Semaphore databasePermits;
+    /**
+     * Saves moves in batches. The server owns it so that stop writes whatever is still
+     * queued before the pool closes; the game DAO is to be given this one rather than
+     * make its own.
+     */
+    private final GameUpdateBatcher gameUpdates;
+
+    public Server() {
+        this(Math.max(1, DatabaseManager.maxPoolSize() - 1));
+    }
+
+    /**
+     * @param databasePermits the most requests that may work against the database at
+     *                        once; later requests wait their turn
+     */
+    public Server(int databasePermits) {
+        if (databasePermits < 1) {
+            throw new IllegalArgumentException("Server needs at least one database permit");
+        }
+        this.databasePermits = new Semaphore(databasePermits, true);
+        gameUpdates = new GameUpdateBatcher(UPDATE_GAME_SQL);
+        javalin = Javalin.create(config -> {
+            config.staticFiles.add("web");
+            config.useVirtualThreads = true;
+        });
+
+        for (var path : DATABASE_PATHS) {
+            javalin.before(path, this::acquireDatabasePermit);
+            javalin.after(path, this::releaseDatabasePermit);
+        }
+
+        // Register your endpoints and exception handlers here.
+
+    }
+
+    public int run(int desiredPort) {
+        javalin.start(desiredPort);
+        return javalin.port();
+    }
+
+    public void stop() {
+        javalin.stop();
+        try {
+            // No request is running any more, so nothing can queue behind this
+            gameUpdates.close();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            DatabaseManager.closePool();
+        }
+    }
+
+    /**
+     * @return the app, so tests can register endpoints on it
+     */
+    Javalin javalin() {
+        return javalin;
+    }
+
+    int availableDatabasePermits() {
+        return databasePermits.availablePermits();
+    }
+
+    private void acquireDatabasePermit(Context ctx) throws InterruptedException {
+        databasePermits.acquire();
+        ctx.attribute(HOLDS_PERMIT, true);
+    }
+
+    /**
+     * After handlers run even when the endpoint throws, so every permit taken is given
+     * back here
+     */
+    private void releaseDatabasePermit(Context ctx) {
+        if (Boolean.TRUE.equals(ctx.attribute(HOLDS_PERMIT))) {
+            ctx.attribute(HOLDS_PERMIT, false);
+            databasePermits.release();
+        }
+    }
+}
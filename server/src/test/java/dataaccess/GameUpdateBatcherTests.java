@@ -0,0 +1,202 @@
+package dataaccess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class GameUpdateBatcherTests {
+
+    private static final String UPDATE_SQL = "UPDATE game SET game = ? WHERE id = ?";
+    private static final Duration FOREVER = Duration.ofHours(1);
+
+    @Test
+    @DisplayName("Repeated Updates Coalesce")
+    public void coalesce() throws Exception {
+        var database = new FakeDatabase();
+        CompletableFuture<Void> first;
+        CompletableFuture<Void> last;
+        try (var batcher = new GameUpdateBatcher(UPDATE_SQL, 64, FOREVER, database::connect)) {
+            first = batcher.update(1, "move 1");
+            batcher.update(2, "other game");
+            batcher.update(1, "move 2");
+            last = batcher.update(1, "move 3");
+        }
+        Assertions.assertSame(first, last);
+        Assertions.assertTrue(first.isDone());
+        Assertions.assertEquals(List.of(Map.of(1, "move 3", 2, "other game")), database.batches);
+    }
+
+    @Test
+    @DisplayName("Full Batch Is Written Without Waiting")
+    public void sizeTriggered() throws Exception {
+        var database = new FakeDatabase();
+        try (var batcher = new GameUpdateBatcher(UPDATE_SQL, 3, FOREVER, database::connect)) {
+            var updates = new ArrayList<CompletableFuture<Void>>();
+            for (int game = 1; game <= 3; game++) {
+                updates.add(batcher.update(game, "state " + game));
+            }
+            CompletableFuture.allOf(updates.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+            Assertions.assertEquals(List.of(Map.of(1, "state 1", 2, "state 2", 3, "state 3")), database.batches);
+        }
+    }
+
+    @Test
+    @DisplayName("Batches Never Exceed Their Limit")
+    public void batchLimit() throws Exception {
+        var database = new FakeDatabase();
+        database.gate = new CountDownLatch(1);
+        try (var batcher = new GameUpdateBatcher(UPDATE_SQL, 3, FOREVER, database::connect)) {
+            var updates = new ArrayList<CompletableFuture<Void>>();
+            for (int game = 1; game <= 3; game++) {
+                updates.add(batcher.update(game, "state " + game));
+            }
+            database.writing.await(5, TimeUnit.SECONDS);
+            // These pile up while the first batch is stuck writing
+            for (int game = 4; game <= 10; game++) {
+                updates.add(batcher.update(game, "state " + game));
+            }
+            database.gate.countDown();
+            CompletableFuture.allOf(updates.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+        }
+        int written = 0;
+        for (var batch : database.batches) {
+            Assertions.assertTrue(batch.size() <= 3, "batch of " + batch.size());
+            written += batch.size();
+        }
+        Assertions.assertEquals(10, written);
+    }
+
+    @Test
+    @DisplayName("Partial Batch Is Written After The Delay")
+    public void delayTriggered() throws Exception {
+        var database = new FakeDatabase();
+        try (var batcher = new GameUpdateBatcher(UPDATE_SQL, 64, Duration.ofMillis(20), database::connect)) {
+            batcher.update(7, "state").get(5, TimeUnit.SECONDS);
+            Assertions.assertEquals(List.of(Map.of(7, "state")), database.batches);
+        }
+    }
+
+    @Test
+    @DisplayName("Failures Reach Callers And Writing Continues")
+    public void failure() throws Exception {
+        var database = new FakeDatabase();
+        database.failure = new IllegalStateException("pool is closed");
+        try (var batcher = new GameUpdateBatcher(UPDATE_SQL, 1, FOREVER, database::connect)) {
+            var failed = batcher.update(1, "lost");
+            var thrown = Assertions.assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+            Assertions.assertInstanceOf(DataAccessException.class, thrown.getCause());
+            Assertions.assertSame(database.failure, thrown.getCause().getCause());
+
+            database.failure = null;
+            batcher.update(1, "saved").get(5, TimeUnit.SECONDS);
+            Assertions.assertEquals(List.of(Map.of(1, "saved")), database.batches);
+        }
+    }
+
+    @Test
+    @DisplayName("Failed Batch Is Rolled Back")
+    public void rollback() throws Exception {
+        var database = new FakeDatabase();
+        database.batchFailure = new BatchUpdateException();
+        try (var batcher = new GameUpdateBatcher(UPDATE_SQL, 1, FOREVER, database::connect)) {
+            var failed = batcher.update(1, "lost");
+            var thrown = Assertions.assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+            Assertions.assertSame(database.batchFailure, thrown.getCause().getCause());
+        }
+        Assertions.assertEquals(List.of("rollback"), database.endings);
+    }
+
+    @Test
+    @DisplayName("Close Drains The Queue")
+    public void closeDrains() throws Exception {
+        var database = new FakeDatabase();
+        var batcher = new GameUpdateBatcher(UPDATE_SQL, 64, FOREVER, database::connect);
+        var first = batcher.update(1, "state 1");
+        var second = batcher.update(2, "state 2");
+        batcher.close();
+        Assertions.assertTrue(first.isDone() && !first.isCompletedExceptionally());
+        Assertions.assertTrue(second.isDone() && !second.isCompletedExceptionally());
+        Assertions.assertEquals(List.of(Map.of(1, "state 1", 2, "state 2")), database.batches);
+        Assertions.assertThrows(IllegalStateException.class, () -> batcher.update(3, "too late"));
+    }
+
+    /**
+     * Records the batches written through its connections instead of talking to MySQL
+     */
+    private static final class FakeDatabase {
+        final List<Map<Integer, String>> batches = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch writing = new CountDownLatch(1);
+        final List<String> endings = Collections.synchronizedList(new ArrayList<>());
+        volatile RuntimeException failure;
+        volatile SQLException batchFailure;
+        volatile CountDownLatch gate;
+
+        Connection connect() {
+            if (failure != null) {
+                throw failure;
+            }
+            return fake(Connection.class, (method, args) -> switch (method) {
+                case "prepareStatement" -> statement();
+                case "commit", "rollback" -> {
+                    endings.add(method);
+                    yield null;
+                }
+                case "setAutoCommit", "close" -> null;
+                default -> throw new UnsupportedOperationException(method);
+            });
+        }
+
+        private PreparedStatement statement() {
+            var batch = new LinkedHashMap<Integer, String>();
+            var state = new String[1];
+            return fake(PreparedStatement.class, (method, args) -> switch (method) {
+                case "setString" -> {
+                    state[0] = (String) args[1];
+                    yield null;
+                }
+                case "setInt" -> {
+                    batch.put((Integer) args[1], state[0]);
+                    yield null;
+                }
+                case "addBatch", "close" -> null;
+                case "executeBatch" -> {
+                    writing.countDown();
+                    if (gate != null) {
+                        gate.await(5, TimeUnit.SECONDS);
+                    }
+                    if (batchFailure != null) {
+                        throw batchFailure;
+                    }
+                    batches.add(batch);
+                    yield new int[batch.size()];
+                }
+                default -> throw new UnsupportedOperationException(method);
+            });
+        }
+    }
+
+    private interface Handler {
+        Object handle(String method, Object[] args) throws Exception;
+    }
+
+    private static <T> T fake(Class<T> type, Handler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> handler.handle(method.getName(), args)));
+    }
+}
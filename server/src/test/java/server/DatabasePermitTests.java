@@ -0,0 +1,65 @@
+package server;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+public class DatabasePermitTests {
+
+    private static final int PERMITS = 2;
+
+    private Server server;
+    private HttpClient client;
+    private int port;
+
+    @BeforeEach
+    public void start() {
+        server = new Server(PERMITS);
+        server.javalin().get("/game", ctx -> {
+            throw new IllegalStateException("database is down");
+        });
+        server.javalin().get("/db", ctx -> ctx.result(String.valueOf(server.availableDatabasePermits())));
+        port = server.run(0);
+        client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    }
+
+    @AfterEach
+    public void stop() {
+        server.stop();
+    }
+
+    @Test
+    @DisplayName("Permits Are Returned When A Handler Throws")
+    public void returnedAfterFailure() throws Exception {
+        // Were permits kept, the third request would wait forever and time out
+        for (int i = 0; i < PERMITS * 3; i++) {
+            Assertions.assertEquals(500, get("/game").statusCode());
+        }
+        Assertions.assertEquals(PERMITS, server.availableDatabasePermits());
+    }
+
+    @Test
+    @DisplayName("Handlers Run Holding A Permit")
+    public void heldDuringHandler() throws Exception {
+        var response = get("/db");
+        Assertions.assertEquals(200, response.statusCode());
+        Assertions.assertEquals(String.valueOf(PERMITS - 1), response.body());
+        Assertions.assertEquals(PERMITS, server.availableDatabasePermits());
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        var request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(5))
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
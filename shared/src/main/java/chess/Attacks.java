@@ -0,0 +1,301 @@
+package chess;
+
+/**
+ * Precomputed attack tables for every piece type.
+ * <p>
+ * Knight, king and pawn attacks only depend on the square, so they are a single
+ * array lookup. Rook and bishop attacks also depend on which squares along their rays
+ * are occupied; those use PEXT-style tables: the occupied squares inside the piece's
+ * relevance mask are compressed into a dense index ({@link Long#compress}, which the
+ * JIT turns into a single PEXT instruction where the CPU supports it) and that index
+ * selects a precomputed attack set.
+ * <p>
+ * {@link #attackedBy} instead works on whole bitboards at once: every knight, king and
+ * pawn is shifted in the same few operations, and sliding pieces are flooded along each
+ * direction with Kogge-Stone fills, so the cost does not depend on how many pieces there
+ * are.
+ */
+final class Attacks {
+
+    private static final int[][] ROOK_DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+    private static final int[][] KNIGHT_STEPS = {
+            {2, 1}, {2, -1}, {-2, 1}, {-2, -1}, {1, 2}, {1, -2}, {-1, 2}, {-1, -2},
+    };
+    private static final int[][] KING_STEPS = {
+            {1, 0}, {-1, 0}, {0, 1}, {0, -1}, {1, 1}, {1, -1}, {-1, 1}, {-1, -1},
+    };
+
+    private static final long FILE_A = 0x0101010101010101L;
+    private static final long FILE_B = FILE_A << 1;
+    private static final long FILE_G = FILE_A << 6;
+    private static final long FILE_H = FILE_A << 7;
+    private static final long RANK_1 = 0xFFL;
+    private static final long RANK_8 = RANK_1 << 56;
+
+    /**
+     * Rotation for one step in each direction, paired with the squares a step in that
+     * direction can land on; the mask drops pieces that wrapped around an edge
+     */
+    private static final int[] ROOK_SHIFTS = {8, -8, 1, -1};
+    private static final long[] ROOK_LANDINGS = {~RANK_1, ~RANK_8, ~FILE_A, ~FILE_H};
+    private static final int[] BISHOP_SHIFTS = {9, 7, -7, -9};
+    private static final long[] BISHOP_LANDINGS = {
+            ~RANK_1 & ~FILE_A, ~RANK_1 & ~FILE_H, ~RANK_8 & ~FILE_A, ~RANK_8 & ~FILE_H,
+    };
+
+    private static final long[] KNIGHT = new long[64];
+    private static final long[] KING = new long[64];
+    private static final long[][] PAWN = new long[2][64];
+
+    private static final long[][] BETWEEN = new long[64][64];
+
+    private static final long[] ROOK_MASK = new long[64];
+    private static final int[] ROOK_OFFSET = new int[64];
+    private static final long[] ROOK_TABLE;
+
+    private static final long[] BISHOP_MASK = new long[64];
+    private static final int[] BISHOP_OFFSET = new int[64];
+    private static final long[] BISHOP_TABLE;
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            KNIGHT[square] = steps(square, KNIGHT_STEPS);
+            KING[square] = steps(square, KING_STEPS);
+            PAWN[ChessGame.TeamColor.WHITE.ordinal()][square] = steps(square, new int[][]{{1, 1}, {1, -1}});
+            PAWN[ChessGame.TeamColor.BLACK.ordinal()][square] = steps(square, new int[][]{{-1, 1}, {-1, -1}});
+        }
+        ROOK_TABLE = slidingTable(ROOK_DIRECTIONS, ROOK_MASK, ROOK_OFFSET);
+        BISHOP_TABLE = slidingTable(BISHOP_DIRECTIONS, BISHOP_MASK, BISHOP_OFFSET);
+        for (int a = 0; a < 64; a++) {
+            for (int b = 0; b < 64; b++) {
+                long bitA = 1L << a;
+                long bitB = 1L << b;
+                if ((rook(a, 0) & bitB) != 0) {
+                    BETWEEN[a][b] = rook(a, bitB) & rook(b, bitA);
+                } else if ((bishop(a, 0) & bitB) != 0) {
+                    BETWEEN[a][b] = bishop(a, bitB) & bishop(b, bitA);
+                }
+            }
+        }
+    }
+
+    private Attacks() {
+    }
+
+    static long knight(int square) {
+        return KNIGHT[square];
+    }
+
+    static long king(int square) {
+        return KING[square];
+    }
+
+    /**
+     * @return the squares a pawn of the given team attacks from a square
+     */
+    static long pawn(ChessGame.TeamColor color, int square) {
+        return PAWN[color.ordinal()][square];
+    }
+
+    static long rook(int square, long occupied) {
+        return ROOK_TABLE[ROOK_OFFSET[square] + (int) Long.compress(occupied, ROOK_MASK[square])];
+    }
+
+    static long bishop(int square, long occupied) {
+        return BISHOP_TABLE[BISHOP_OFFSET[square] + (int) Long.compress(occupied, BISHOP_MASK[square])];
+    }
+
+    static long queen(int square, long occupied) {
+        return rook(square, occupied) | bishop(square, occupied);
+    }
+
+    /**
+     * @return the squares strictly between two squares on the same rank, file or
+     * diagonal, or 0 if they are not on a common line
+     */
+    static long between(int a, int b) {
+        return BETWEEN[a][b];
+    }
+
+    /**
+     * @return the squares a piece of the given type attacks, ignoring which team owns them.
+     * Pawns are not handled here because their attacks depend on their team.
+     */
+    static long piece(ChessPiece.PieceType type, int square, long occupied) {
+        return switch (type) {
+            case KING -> king(square);
+            case QUEEN -> queen(square, occupied);
+            case BISHOP -> bishop(square, occupied);
+            case KNIGHT -> knight(square);
+            case ROOK -> rook(square, occupied);
+            case PAWN -> throw new IllegalArgumentException("Pawn attacks depend on team color");
+        };
+    }
+
+    /**
+     * Finds every piece of a team that attacks a square
+     *
+     * @param board    board to look at
+     * @param square   square being attacked
+     * @param attacker team doing the attacking
+     * @param occupied occupancy used to block sliding pieces
+     * @return bitboard of the attacking pieces
+     */
+    static long attackersTo(ChessBoard board, int square, ChessGame.TeamColor attacker, long occupied) {
+        var defender = attacker == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        long queens = board.pieces(attacker, ChessPiece.PieceType.QUEEN);
+        return (pawn(defender, square) & board.pieces(attacker, ChessPiece.PieceType.PAWN))
+                | (knight(square) & board.pieces(attacker, ChessPiece.PieceType.KNIGHT))
+                | (king(square) & board.pieces(attacker, ChessPiece.PieceType.KING))
+                | (rook(square, occupied) & (board.pieces(attacker, ChessPiece.PieceType.ROOK) | queens))
+                | (bishop(square, occupied) & (board.pieces(attacker, ChessPiece.PieceType.BISHOP) | queens));
+    }
+
+    /**
+     * @return true if any piece of the attacking team attacks the square
+     */
+    static boolean isAttacked(ChessBoard board, int square, ChessGame.TeamColor attacker) {
+        return attackersTo(board, square, attacker, board.occupied()) != 0;
+    }
+
+    /**
+     * @return every square attacked by at least one piece of the given team
+     */
+    static long attackedBy(ChessBoard board, ChessGame.TeamColor attacker) {
+        long empty = ~board.occupied();
+        long pawns = board.pieces(attacker, ChessPiece.PieceType.PAWN);
+        long queens = board.pieces(attacker, ChessPiece.PieceType.QUEEN);
+        long attacks = attacker == ChessGame.TeamColor.WHITE
+                ? ((pawns << 7) & ~FILE_H) | ((pawns << 9) & ~FILE_A)
+                : ((pawns >>> 9) & ~FILE_H) | ((pawns >>> 7) & ~FILE_A);
+        attacks |= knights(board.pieces(attacker, ChessPiece.PieceType.KNIGHT));
+        attacks |= kings(board.pieces(attacker, ChessPiece.PieceType.KING));
+        attacks |= slides(board.pieces(attacker, ChessPiece.PieceType.ROOK) | queens, empty,
+                ROOK_SHIFTS, ROOK_LANDINGS);
+        attacks |= slides(board.pieces(attacker, ChessPiece.PieceType.BISHOP) | queens, empty,
+                BISHOP_SHIFTS, BISHOP_LANDINGS);
+        return attacks;
+    }
+
+    /**
+     * @return every square attacked by a knight on any of the given squares
+     */
+    static long knights(long knights) {
+        long one = ((knights << 1) & ~FILE_A) | ((knights >>> 1) & ~FILE_H);
+        long two = ((knights << 2) & ~(FILE_A | FILE_B)) | ((knights >>> 2) & ~(FILE_G | FILE_H));
+        return (one << 16) | (one >>> 16) | (two << 8) | (two >>> 8);
+    }
+
+    /**
+     * @return every square attacked by a king on any of the given squares
+     */
+    static long kings(long kings) {
+        long attacks = ((kings << 1) & ~FILE_A) | ((kings >>> 1) & ~FILE_H);
+        long row = kings | attacks;
+        return attacks | (row << 8) | (row >>> 8);
+    }
+
+    /**
+     * Floods sliding pieces along each direction until they hit a piece or the edge
+     *
+     * @param sliders  squares of the sliding pieces
+     * @param empty    squares the pieces can slide through
+     * @param shifts   rotation for one step in each direction
+     * @param landings squares a step in each direction can land on
+     * @return every square attacked along the given directions
+     */
+    private static long slides(long sliders, long empty, int[] shifts, long[] landings) {
+        if (sliders == 0) {
+            return 0;
+        }
+        long attacks = 0;
+        for (int i = 0; i < shifts.length; i++) {
+            int shift = shifts[i];
+            long landing = landings[i];
+            // Kogge-Stone fill: after three doubling steps the fill reaches seven squares
+            long fill = sliders;
+            long open = empty & landing;
+            fill |= open & Long.rotateLeft(fill, shift);
+            open &= Long.rotateLeft(open, shift);
+            fill |= open & Long.rotateLeft(fill, 2 * shift);
+            open &= Long.rotateLeft(open, 2 * shift);
+            fill |= open & Long.rotateLeft(fill, 4 * shift);
+            attacks |= Long.rotateLeft(fill, shift) & landing;
+        }
+        return attacks;
+    }
+
+    private static long steps(int square, int[][] steps) {
+        long attacks = 0;
+        int row = square / 8;
+        int col = square % 8;
+        for (var step : steps) {
+            int r = row + step[0];
+            int c = col + step[1];
+            if (onBoard(r, c)) {
+                attacks |= 1L << (r * 8 + c);
+            }
+        }
+        return attacks;
+    }
+
+    private static long[] slidingTable(int[][] directions, long[] masks, int[] offsets) {
+        int size = 0;
+        for (int square = 0; square < 64; square++) {
+            masks[square] = relevanceMask(square, directions);
+            offsets[square] = size;
+            size += 1 << Long.bitCount(masks[square]);
+        }
+        var table = new long[size];
+        for (int square = 0; square < 64; square++) {
+            int entries = 1 << Long.bitCount(masks[square]);
+            for (int index = 0; index < entries; index++) {
+                long occupied = Long.expand(index, masks[square]);
+                table[offsets[square] + index] = slide(square, occupied, directions);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * The squares along a piece's rays whose occupancy can change its attacks.
+     * The last square of each ray is left out because it is attacked whether or not it
+     * is occupied.
+     */
+    private static long relevanceMask(int square, int[][] directions) {
+        long mask = 0;
+        for (var direction : directions) {
+            int r = square / 8 + direction[0];
+            int c = square % 8 + direction[1];
+            while (onBoard(r + direction[0], c + direction[1])) {
+                mask |= 1L << (r * 8 + c);
+                r += direction[0];
+                c += direction[1];
+            }
+        }
+        return mask;
+    }
+
+    private static long slide(int square, long occupied, int[][] directions) {
+        long attacks = 0;
+        for (var direction : directions) {
+            int r = square / 8 + direction[0];
+            int c = square % 8 + direction[1];
+            while (onBoard(r, c)) {
+                long bit = 1L << (r * 8 + c);
+                attacks |= bit;
+                if ((occupied & bit) != 0) {
+                    break;
+                }
+                r += direction[0];
+                c += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    private static boolean onBoard(int row, int col) {
+        return row >= 0 && row < 8 && col >= 0 && col < 8;
+    }
+}
@@ -0,0 +1,103 @@
+package chess;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Analyzes many positions at once across a fork-join pool, for offline jobs such as
+ * validating archived games.
+ * <p>
+ * The list of games is split in halves until the pieces are small, and each piece is
+ * analyzed on whichever worker picks it up. Each position's legal moves are generated
+ * once, straight into a scratch list, and the status is worked out from how many there
+ * are; the shared legal move cache is not involved.
+ */
+public final class BatchAnalyzer {
+
+    /**
+     * Positions analyzed by one task before it stops splitting
+     */
+    private static final int BATCH_SIZE = 64;
+
+    /**
+     * The analysis of one position
+     *
+     * @param legalMoves number of legal moves for the team to move
+     * @param status     status of the game for the team to move
+     * @param inCheck    whether the team to move is in check
+     */
+    public record Result(int legalMoves, ChessGame.GameStatus status, boolean inCheck) {
+    }
+
+    private BatchAnalyzer() {
+    }
+
+    /**
+     * Analyzes a single position
+     */
+    public static Result analyze(ChessGame game) {
+        int legalMoves = game.generateLegalMoves(new MoveList());
+        boolean inCheck = game.isInCheck(game.getTeamTurn());
+        ChessGame.GameStatus status;
+        if (legalMoves == 0) {
+            status = inCheck ? ChessGame.GameStatus.CHECKMATE : ChessGame.GameStatus.STALEMATE;
+        } else if (game.isDraw()) {
+            status = ChessGame.GameStatus.DRAW;
+        } else {
+            status = inCheck ? ChessGame.GameStatus.CHECK : ChessGame.GameStatus.ONGOING;
+        }
+        return new Result(legalMoves, status, inCheck);
+    }
+
+    /**
+     * Analyzes positions on the common fork-join pool
+     *
+     * @see #analyzeAll(List, ForkJoinPool)
+     */
+    public static List<Result> analyzeAll(List<ChessGame> games) {
+        return analyzeAll(games, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Analyzes positions in parallel. A game keeps scratch state while it is analyzed,
+     * so the same game object must not appear twice in the list or be used elsewhere
+     * until this returns.
+     *
+     * @param games positions to analyze
+     * @param pool  pool to run on
+     * @return one result per game, in the same order
+     */
+    public static List<Result> analyzeAll(List<ChessGame> games, ForkJoinPool pool) {
+        var results = new Result[games.size()];
+        pool.invoke(new AnalyzeTask(games, results, 0, games.size()));
+        return Arrays.asList(results);
+    }
+
+    private static final class AnalyzeTask extends RecursiveAction {
+        private final List<ChessGame> games;
+        private final Result[] results;
+        private final int start;
+        private final int end;
+
+        AnalyzeTask(List<ChessGame> games, Result[] results, int start, int end) {
+            this.games = games;
+            this.results = results;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= BATCH_SIZE) {
+                for (int i = start; i < end; i++) {
+                    results[i] = analyze(games.get(i));
+                }
+                return;
+            }
+            int middle = (start + end) >>> 1;
+            invokeAll(new AnalyzeTask(games, results, start, middle), new AnalyzeTask(games, results, middle, end));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * An immutable copy of where every piece on a {@link ChessBoard} was at one moment.
+ * <p>
+ * Taking a snapshot copies the board's twelve bitboards, about a hundred bytes, and a
+ * board hands out the same snapshot again until one of its pieces moves. Since nothing
+ * in a snapshot can change, it can be passed to other threads, for example to be
+ * serialized for observers or written to the database, while the game carries on.
+ */
+public final class BoardSnapshot {
+
+    private final long[] pieces;
+    private final long key;
+
+    BoardSnapshot(long[] pieces, long key) {
+        this.pieces = pieces;
+        this.key = key;
+    }
+
+    /**
+     * Gets the piece that was on a square
+     *
+     * @param position the position to get the piece from
+     * @return the piece at the position, or null if the square was empty
+     */
+    public ChessPiece getPiece(ChessPosition position) {
+        long bit = 1L << ChessBoard.square(position);
+        for (int piece = 0; piece < pieces.length; piece++) {
+            if ((pieces[piece] & bit) != 0) {
+                return ChessBoard.piece(piece);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the board's {@link ChessBoard#positionHash()} when the snapshot was taken
+     */
+    public long positionHash() {
+        return key;
+    }
+
+    /**
+     * @return a new, mutable board with the pieces from this snapshot
+     */
+    public ChessBoard toBoard() {
+        var board = new ChessBoard();
+        for (int piece = 0; piece < pieces.length; piece++) {
+            long squares = pieces[piece];
+            while (squares != 0) {
+                board.put(Long.numberOfTrailingZeros(squares), piece);
+                squares &= squares - 1;
+            }
+        }
+        return board;
+    }
+
+    /**
+     * @return the snapshot as the piece placement field of a FEN string
+     */
+    public String toFen() {
+        return toBoard().toFen();
+    }
+
+    /**
+     * @return true if the board has exactly the pieces of this snapshot
+     */
+    public boolean matches(ChessBoard board) {
+        return board.positionHash() == key && board.hasPieces(pieces);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        BoardSnapshot that = (BoardSnapshot) o;
+        return key == that.key && Arrays.equals(pieces, that.pieces);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(key);
+    }
+
+    @Override
+    public String toString() {
+        return toBoard().toString();
+    }
+}
@@ -1,15 +1,71 @@
 package chess;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
 /**
  * A chessboard that can hold and rearrange chess pieces.
  * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
+ * <p>
+ * Pieces are stored as twelve 64-bit bitboards, one per team and piece type, plus
+ * occupancy masks for each team. Bit {@code n} of a bitboard is the square
+ * {@code (row - 1) * 8 + (column - 1)}, so bit 0 is the bottom left square.
+ * {@link #addPiece} and {@link #getPiece} are thin adapters over that representation.
+ * <p>
+ * The board also keeps a Zobrist hash of its pieces up to date as pieces are added and
+ * removed (see {@link #positionHash()}).
  */
 public class ChessBoard {
 
+    /**
+     * Value returned by {@link #pieceAt(int)} for an empty square
+     */
+    static final int EMPTY = -1;
+
+    static final int PIECE_TYPES = ChessPiece.PieceType.values().length;
+    static final int PIECE_KINDS = 2 * PIECE_TYPES;
+
+    private static final ChessPiece[] PIECES = new ChessPiece[PIECE_KINDS];
+
+    static {
+        for (var color : ChessGame.TeamColor.values()) {
+            for (var type : ChessPiece.PieceType.values()) {
+                PIECES[pieceIndex(color, type)] = new ChessPiece(color, type);
+            }
+        }
+    }
+
+    private final long[] pieces = new long[PIECE_KINDS];
+    private final long[] teams = new long[2];
+    private long occupied;
+
+    /**
+     * Zobrist hash of the pieces, kept up to date by {@link #put} and {@link #remove}
+     * once {@link #keyed} is set. It is derived state, so it is never serialized; a
+     * board read from JSON gets its hash recomputed from the pieces when first asked.
+     */
+    private transient long key;
+    private transient boolean keyed;
+
+    /**
+     * The last snapshot handed out, kept until a piece moves
+     */
+    private transient BoardSnapshot snapshot;
+
     public ChessBoard() {
-        
+
+    }
+
+    /**
+     * Creates a copy of another board
+     *
+     * @param other the board to copy
+     */
+    public ChessBoard(ChessBoard other) {
+        copyFrom(other);
     }
 
     /**
@@ -19,7 +75,11 @@ public class ChessBoard {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        throw new RuntimeException("Not implemented");
+        int square = square(position);
+        remove(square);
+        if (piece != null) {
+            put(square, pieceIndex(piece.getTeamColor(), piece.getPieceType()));
+        }
     }
 
     /**
@@ -30,7 +90,8 @@ public class ChessBoard {
      * position
      */
     public ChessPiece getPiece(ChessPosition position) {
-        throw new RuntimeException("Not implemented");
+        int piece = pieceAt(square(position));
+        return piece == EMPTY ? null : PIECES[piece];
     }
 
     /**
@@ -38,6 +99,280 @@ public class ChessBoard {
      * (How the game of chess normally starts)
      */
     public void resetBoard() {
-        throw new RuntimeException("Not implemented");
+        clear();
+        ChessPiece.PieceType[] backRank = {
+                ChessPiece.PieceType.ROOK, ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.BISHOP,
+                ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.KING, ChessPiece.PieceType.BISHOP,
+                ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.ROOK,
+        };
+        for (int col = 0; col < 8; col++) {
+            put(col, pieceIndex(ChessGame.TeamColor.WHITE, backRank[col]));
+            put(8 + col, pieceIndex(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+            put(48 + col, pieceIndex(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+            put(56 + col, pieceIndex(ChessGame.TeamColor.BLACK, backRank[col]));
+        }
+    }
+
+    /**
+     * A 64-bit Zobrist hash of where every piece is. It is updated incrementally as
+     * pieces move, so reading it is free after the first time. Equal boards always have
+     * the same hash, and different boards almost never do.
+     * <p>
+     * This only covers the pieces; {@link ChessGame#positionHash()} adds the side to
+     * move, castling rights and en passant square.
+     *
+     * @return the hash of this board's pieces
+     */
+    public long positionHash() {
+        if (!keyed) {
+            long hash = 0;
+            for (int piece = 0; piece < PIECE_KINDS; piece++) {
+                for (long squares = pieces[piece]; squares != 0; squares &= squares - 1) {
+                    hash ^= Zobrist.piece(piece, Long.numberOfTrailingZeros(squares));
+                }
+            }
+            key = hash;
+            keyed = true;
+        }
+        return key;
+    }
+
+    /**
+     * Takes an immutable snapshot of where the pieces are now. Later changes to this
+     * board do not affect the snapshot, and calling this again before any piece moves
+     * returns the same snapshot.
+     *
+     * @return a snapshot of this board
+     */
+    public BoardSnapshot snapshot() {
+        var current = snapshot;
+        if (current == null) {
+            current = new BoardSnapshot(pieces.clone(), positionHash());
+            snapshot = current;
+        }
+        return current;
+    }
+
+    /**
+     * Overwrites this board with the pieces of another board
+     */
+    void copyFrom(ChessBoard other) {
+        System.arraycopy(other.pieces, 0, pieces, 0, PIECE_KINDS);
+        System.arraycopy(other.teams, 0, teams, 0, 2);
+        occupied = other.occupied;
+        key = other.key;
+        keyed = other.keyed;
+        snapshot = other.snapshot;
+    }
+
+    /**
+     * Creates a board from the piece placement field of a FEN string, such as
+     * {@code rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR}. Anything after the placement
+     * field is ignored, so a complete FEN string is accepted too.
+     *
+     * @param fen FEN text
+     * @return a new board with the pieces from the FEN
+     * @throws IllegalArgumentException if the placement field is malformed
+     */
+    public static ChessBoard fromFen(CharSequence fen) {
+        var board = new ChessBoard();
+        Fen.parsePlacement(fen, board);
+        return board;
+    }
+
+    /**
+     * Writes this board as the piece placement field of a FEN string
+     *
+     * @param out where to write the FEN
+     * @throws IOException if {@code out} fails
+     */
+    public void toFen(Appendable out) throws IOException {
+        Fen.writePlacement(this, out);
+    }
+
+    /**
+     * @return this board as the piece placement field of a FEN string
+     */
+    public String toFen() {
+        var fen = new StringBuilder(72);
+        try {
+            toFen(fen);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return fen.toString();
+    }
+
+    /**
+     * Removes every piece from the board
+     */
+    void clear() {
+        Arrays.fill(pieces, 0L);
+        Arrays.fill(teams, 0L);
+        occupied = 0L;
+        key = 0L;
+        keyed = true;
+        snapshot = null;
+    }
+
+    /**
+     * Places a piece on an empty square
+     *
+     * @param square square index, 0 through 63
+     * @param piece  piece index as returned by {@link #pieceIndex}
+     */
+    void put(int square, int piece) {
+        long bit = 1L << square;
+        pieces[piece] |= bit;
+        teams[piece / PIECE_TYPES] |= bit;
+        occupied |= bit;
+        key ^= Zobrist.piece(piece, square);
+        snapshot = null;
+    }
+
+    /**
+     * Removes whatever piece is on a square
+     *
+     * @param square square index, 0 through 63
+     * @return the piece index that was removed, or {@link #EMPTY}
+     */
+    int remove(int square) {
+        int piece = pieceAt(square);
+        if (piece != EMPTY) {
+            long bit = ~(1L << square);
+            pieces[piece] &= bit;
+            teams[piece / PIECE_TYPES] &= bit;
+            occupied &= bit;
+            key ^= Zobrist.piece(piece, square);
+            snapshot = null;
+        }
+        return piece;
+    }
+
+    /**
+     * @param square square index, 0 through 63
+     * @return the piece index on the square, or {@link #EMPTY}
+     */
+    int pieceAt(int square) {
+        long bit = 1L << square;
+        if ((occupied & bit) == 0) {
+            return EMPTY;
+        }
+        int first = (teams[0] & bit) != 0 ? 0 : PIECE_TYPES;
+        for (int piece = first; piece < first + PIECE_TYPES; piece++) {
+            if ((pieces[piece] & bit) != 0) {
+                return piece;
+            }
+        }
+        return EMPTY;
+    }
+
+    /**
+     * @return bitboard of every square holding the given piece index
+     */
+    long pieces(int piece) {
+        return pieces[piece];
+    }
+
+    /**
+     * @return bitboard of every square holding the given team's piece type
+     */
+    long pieces(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return pieces[pieceIndex(color, type)];
+    }
+
+    /**
+     * @return bitboard of every square holding one of the given team's pieces
+     */
+    long occupancy(ChessGame.TeamColor color) {
+        return teams[color.ordinal()];
+    }
+
+    /**
+     * @return bitboard of every occupied square
+     */
+    long occupied() {
+        return occupied;
+    }
+
+    /**
+     * @return true if this board's bitboards are exactly the given ones
+     */
+    boolean hasPieces(long[] pieces) {
+        return Arrays.equals(this.pieces, pieces);
+    }
+
+    /**
+     * @return the index used to address the bitboard for a team's piece type
+     */
+    static int pieceIndex(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return color.ordinal() * PIECE_TYPES + type.ordinal();
+    }
+
+    /**
+     * @return the shared, immutable piece for a piece index
+     */
+    static ChessPiece piece(int piece) {
+        return PIECES[piece];
+    }
+
+    /**
+     * Converts a position into a square index
+     *
+     * @throws IllegalArgumentException if the position is not on the board
+     */
+    static int square(ChessPosition position) {
+        int row = position.getRow();
+        int col = position.getColumn();
+        if (row < 1 || row > 8 || col < 1 || col > 8) {
+            throw new IllegalArgumentException("Position is not on the board: " + position);
+        }
+        return (row - 1) * 8 + (col - 1);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ChessBoard that = (ChessBoard) o;
+        return Arrays.equals(pieces, that.pieces);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(positionHash());
+    }
+
+    @Override
+    public String toString() {
+        var text = new StringBuilder();
+        for (int row = 7; row >= 0; row--) {
+            text.append('|');
+            for (int col = 0; col < 8; col++) {
+                int piece = pieceAt(row * 8 + col);
+                text.append(piece == EMPTY ? ' ' : symbol(piece)).append('|');
+            }
+            text.append('\n');
+        }
+        return text.toString();
+    }
+
+    /**
+     * @return the FEN letter for a piece index: upper case for white, lower case for black
+     */
+    static char symbol(int piece) {
+        char symbol = switch (PIECES[piece].getPieceType()) {
+            case KING -> 'k';
+            case QUEEN -> 'q';
+            case BISHOP -> 'b';
+            case KNIGHT -> 'n';
+            case ROOK -> 'r';
+            case PAWN -> 'p';
+        };
+        return piece < PIECE_TYPES ? Character.toUpperCase(symbol) : symbol;
     }
 }
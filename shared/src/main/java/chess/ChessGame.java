@@ -1,6 +1,11 @@
 package chess;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Objects;
 
 /**
  * A class that can manage a chess game, making moves on a board
@@ -10,15 +15,177 @@ import java.util.Collection;
  */
 public class ChessGame {
 
+    static final int WHITE_KINGSIDE = 1;
+    static final int WHITE_QUEENSIDE = 2;
+    static final int BLACK_KINGSIDE = 4;
+    static final int BLACK_QUEENSIDE = 8;
+    static final int ALL_CASTLING = WHITE_KINGSIDE | WHITE_QUEENSIDE | BLACK_KINGSIDE | BLACK_QUEENSIDE;
+    static final int NO_SQUARE = -1;
+
+    /**
+     * Castling rights that survive a piece moving from or to each square. Moving a king
+     * or rook off its home square, or capturing a rook on its home square, clears the
+     * matching rights.
+     */
+    private static final int[] CASTLING_MASK = new int[64];
+
+    static {
+        Arrays.fill(CASTLING_MASK, ALL_CASTLING);
+        CASTLING_MASK[0] &= ~WHITE_QUEENSIDE;
+        CASTLING_MASK[7] &= ~WHITE_KINGSIDE;
+        CASTLING_MASK[4] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLING_MASK[56] &= ~BLACK_QUEENSIDE;
+        CASTLING_MASK[63] &= ~BLACK_KINGSIDE;
+        CASTLING_MASK[60] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+    }
+
+    // Layout of the undo record returned by applyMove
+    private static final int UNDO_CAPTURE_SHIFT = 15;
+    private static final int UNDO_CASTLING_SHIFT = 19;
+    private static final int UNDO_EN_PASSANT_SHIFT = 23;
+    private static final long UNDO_EN_PASSANT_CAPTURE = 1L << 30;
+    private static final int UNDO_HALFMOVE_SHIFT = 31;
+    private static final int MAX_UNDO_HALFMOVE = 0xFFFF;
+    private static final int UNDO_MOVE_MASK = (1 << UNDO_CAPTURE_SHIFT) - 1;
+
+    private static final int LEGAL_MOVE_CACHE_SIZE = 1 << 16;
+
+    /**
+     * Most positions remembered for repetition checks. A position can only repeat one
+     * reached since the last capture or pawn move, and the fifty-move rule ends the game
+     * before more than 100 of those pile up.
+     */
+    private static final int HISTORY_SIZE = 128;
+    private static final long LIGHT_SQUARES = 0x55AA55AA55AA55AAL;
+    private static final int FIFTY_MOVE_HALFMOVES = 100;
+
+    /**
+     * Shared by every game, since the same positions come up again and again across
+     * games. Keys are always hashed in this process from the pieces, turn, castling
+     * rights and en passant square, never read from serialized state, so a game loaded
+     * from JSON cannot pick up another position's moves.
+     */
+    private static final LegalMoveCache LEGAL_MOVES = new LegalMoveCache(LEGAL_MOVE_CACHE_SIZE);
+
+    private ChessBoard board;
+    private TeamColor teamTurn;
+    private int castlingRights;
+    private int enPassantSquare;
+    private int halfmoveClock;
+    private int fullmoveNumber;
+
+    /**
+     * Hashes of the positions reached by {@link #makeMove} since the last capture or pawn
+     * move, oldest first and ending with the current one, and how many times the current
+     * position has occurred. Older positions can never repeat, so they are dropped, which
+     * keeps the history short when a game is serialized. The array is replaced rather
+     * than modified, so copies of a game can share it.
+     */
+    private long[] positionHistory = new long[0];
+    private int repetitions;
+
+    private final transient MoveList candidates = new MoveList();
+
+    /**
+     * Squares attacked by each team, indexed by team ordinal, and the board hash each
+     * map was computed for. A map is only trusted while the board still has that hash.
+     */
+    private final transient long[] attackMaps = new long[2];
+    private final transient long[] attackMapKeys = new long[2];
+    private transient int validAttackMaps;
+
     public ChessGame() {
+        board = new ChessBoard();
+        board.resetBoard();
+        teamTurn = TeamColor.WHITE;
+        castlingRights = ALL_CASTLING;
+        enPassantSquare = NO_SQUARE;
+        fullmoveNumber = 1;
+        resetHistory();
+    }
 
+    /**
+     * Creates an independent copy of another game, including its position history
+     *
+     * @param other the game to copy
+     */
+    public ChessGame(ChessGame other) {
+        board = new ChessBoard(other.board);
+        teamTurn = other.teamTurn;
+        castlingRights = other.castlingRights;
+        enPassantSquare = other.enPassantSquare;
+        halfmoveClock = other.halfmoveClock;
+        fullmoveNumber = other.fullmoveNumber;
+        positionHistory = other.positionHistory;
+        repetitions = other.repetitions;
+    }
+
+    /**
+     * Creates a game from a FEN string, restoring the pieces, side to move, castling
+     * rights, en passant square and move counters. The two move counters may be left off.
+     *
+     * @param fen FEN text, such as
+     *            {@code rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1}
+     * @return the game described by the FEN
+     * @throws IllegalArgumentException if the FEN is malformed
+     */
+    public static ChessGame fromFen(CharSequence fen) {
+        var board = new ChessBoard();
+        int end = Fen.parsePlacement(fen, board);
+        var game = new ChessGame();
+        game.board = board;
+        Fen.parseState(fen, end, game);
+        return game;
+    }
+
+    /**
+     * Writes this game's position as a FEN string
+     *
+     * @param out where to write the FEN
+     * @throws IOException if {@code out} fails
+     */
+    public void toFen(Appendable out) throws IOException {
+        board.toFen(out);
+        out.append(' ').append(teamTurn == TeamColor.WHITE ? 'w' : 'b').append(' ');
+        Fen.writeCastling(castlingRights, out);
+        out.append(' ');
+        Fen.writeSquare(enPassantSquare, out);
+        out.append(' ').append(Integer.toString(halfmoveClock))
+                .append(' ').append(Integer.toString(fullmoveNumber));
+    }
+
+    /**
+     * @return this game's position as a FEN string
+     */
+    public String toFen() {
+        var fen = new StringBuilder(90);
+        try {
+            toFen(fen);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return fen.toString();
+    }
+
+    /**
+     * @return the number of moves since the last capture or pawn move
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * @return the current move number, starting at 1 and increasing after each black move
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
     }
 
     /**
      * @return Which team's turn it is
      */
     public TeamColor getTeamTurn() {
-        throw new RuntimeException("Not implemented");
+        return teamTurn;
     }
 
     /**
@@ -27,7 +194,8 @@ public class ChessGame {
      * @param team the team whose turn it is
      */
     public void setTeamTurn(TeamColor team) {
-        throw new RuntimeException("Not implemented");
+        teamTurn = team;
+        resetHistory();
     }
 
     /**
@@ -35,7 +203,41 @@ public class ChessGame {
      */
     public enum TeamColor {
         WHITE,
-        BLACK
+        BLACK;
+
+        /**
+         * @return the other team
+         */
+        public TeamColor opponent() {
+            return this == WHITE ? BLACK : WHITE;
+        }
+    }
+
+    /**
+     * The state of a game from the point of view of the team whose turn it is
+     */
+    public enum GameStatus {
+        /**
+         * The team to move has a legal move and is not in check
+         */
+        ONGOING,
+        /**
+         * The team to move is in check but can get out of it
+         */
+        CHECK,
+        /**
+         * The team to move is in check and has no legal move
+         */
+        CHECKMATE,
+        /**
+         * The team to move is not in check but has no legal move
+         */
+        STALEMATE,
+        /**
+         * The game is drawn by repetition, the fifty-move rule or insufficient material
+         * (see {@link #isDraw()})
+         */
+        DRAW
     }
 
     /**
@@ -46,7 +248,18 @@ public class ChessGame {
      * startPosition
      */
     public Collection<ChessMove> validMoves(ChessPosition startPosition) {
-        throw new RuntimeException("Not implemented");
+        int from = ChessBoard.square(startPosition);
+        int piece = board.pieceAt(from);
+        if (piece == ChessBoard.EMPTY) {
+            return null;
+        }
+        var moves = new ArrayList<ChessMove>();
+        for (int move : cachedLegalMoves(ChessBoard.piece(piece).getTeamColor())) {
+            if (ChessMove.from(move) == from) {
+                moves.add(ChessMove.of(move));
+            }
+        }
+        return moves;
     }
 
     /**
@@ -56,7 +269,18 @@ public class ChessGame {
      * @throws InvalidMoveException if move is invalid
      */
     public void makeMove(ChessMove move) throws InvalidMoveException {
-        throw new RuntimeException("Not implemented");
+        var piece = board.getPiece(move.getStartPosition());
+        if (piece == null) {
+            throw new InvalidMoveException("No piece at " + move.getStartPosition());
+        }
+        if (piece.getTeamColor() != teamTurn) {
+            throw new InvalidMoveException("It is not " + piece.getTeamColor() + "'s turn");
+        }
+        if (!validMoves(move.getStartPosition()).contains(move)) {
+            throw new InvalidMoveException("Illegal move " + move);
+        }
+        applyMove(move.pack());
+        recordPosition();
     }
 
     /**
@@ -66,7 +290,15 @@ public class ChessGame {
      * @return True if the specified team is in check
      */
     public boolean isInCheck(TeamColor teamColor) {
-        throw new RuntimeException("Not implemented");
+        // Looking outward from each king is cheaper than building the opponent's attack map
+        long kings = board.pieces(teamColor, ChessPiece.PieceType.KING);
+        while (kings != 0) {
+            if (Attacks.isAttacked(board, Long.numberOfTrailingZeros(kings), teamColor.opponent())) {
+                return true;
+            }
+            kings &= kings - 1;
+        }
+        return false;
     }
 
     /**
@@ -76,7 +308,7 @@ public class ChessGame {
      * @return True if the specified team is in checkmate
      */
     public boolean isInCheckmate(TeamColor teamColor) {
-        throw new RuntimeException("Not implemented");
+        return isInCheck(teamColor) && cachedLegalMoves(teamColor).length == 0;
     }
 
     /**
@@ -87,16 +319,181 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
-        throw new RuntimeException("Not implemented");
+        return !isInCheck(teamColor) && cachedLegalMoves(teamColor).length == 0;
+    }
+
+    /**
+     * Works out whether the team to move is in check, checkmate or stalemate, or the game
+     * is drawn. This stops at the first legal move it finds, so it is much cheaper than
+     * {@link #isInCheckmate} followed by {@link #isInStalemate} when the game goes on.
+     * Checkmate takes precedence over a draw.
+     *
+     * @return the status of the game for the team whose turn it is
+     */
+    public GameStatus status() {
+        boolean check = isInCheck(teamTurn);
+        if (!hasLegalMove(teamTurn)) {
+            return check ? GameStatus.CHECKMATE : GameStatus.STALEMATE;
+        }
+        if (isDraw()) {
+            return GameStatus.DRAW;
+        }
+        return check ? GameStatus.CHECK : GameStatus.ONGOING;
+    }
+
+    /**
+     * Determines if the game is drawn by threefold repetition, the fifty-move rule or
+     * insufficient material. The game does not wait for a player to claim the draw.
+     *
+     * @return True if the game is drawn
+     */
+    public boolean isDraw() {
+        return isThreefoldRepetition() || isFiftyMoveDraw() || isInsufficientMaterial();
+    }
+
+    /**
+     * Determines if the current position has occurred three times, counting only
+     * positions reached through {@link #makeMove}. Positions count as the same when the
+     * same team is to move and the same moves are available.
+     *
+     * @return True if the position has occurred at least three times
+     */
+    public boolean isThreefoldRepetition() {
+        return repetitions >= 3;
+    }
+
+    /**
+     * @return how many times the current position has occurred, at least 1
+     */
+    public int getRepetitionCount() {
+        return repetitions;
+    }
+
+    /**
+     * Determines if fifty moves by each team have passed without a capture or pawn move
+     *
+     * @return True if the fifty-move rule applies
+     */
+    public boolean isFiftyMoveDraw() {
+        return halfmoveClock >= FIFTY_MOVE_HALFMOVES;
+    }
+
+    /**
+     * Determines if neither team has enough material left to checkmate: there are no
+     * pawns, rooks or queens, and either at most one knight or bishop is left, or every
+     * remaining minor piece is a bishop on the same square color.
+     *
+     * @return True if checkmate is impossible for both teams
+     */
+    public boolean isInsufficientMaterial() {
+        long heavy = 0;
+        long knights = 0;
+        long bishops = 0;
+        for (var color : TeamColor.values()) {
+            heavy |= board.pieces(color, ChessPiece.PieceType.PAWN) | board.pieces(color, ChessPiece.PieceType.ROOK)
+                    | board.pieces(color, ChessPiece.PieceType.QUEEN);
+            knights |= board.pieces(color, ChessPiece.PieceType.KNIGHT);
+            bishops |= board.pieces(color, ChessPiece.PieceType.BISHOP);
+        }
+        if (heavy != 0) {
+            return false;
+        }
+        if (Long.bitCount(knights | bishops) <= 1) {
+            return true;
+        }
+        return knights == 0 && ((bishops & LIGHT_SQUARES) == 0 || (bishops & ~LIGHT_SQUARES) == 0);
     }
 
     /**
      * Sets this game's chessboard to a given board
+     * <p>
+     * Castling rights are granted for every king and rook still on its home square, and
+     * no en passant capture is available.
      *
      * @param board the new board to use
      */
     public void setBoard(ChessBoard board) {
-        throw new RuntimeException("Not implemented");
+        this.board = board;
+        castlingRights = inferCastlingRights(board);
+        enPassantSquare = NO_SQUARE;
+        halfmoveClock = 0;
+        fullmoveNumber = 1;
+        resetHistory();
+    }
+
+    /**
+     * Gets every square a team attacks. The map is built the first time it is asked for
+     * and kept until the board changes, so nothing is spent on it unless it is used.
+     *
+     * @return bitboard of the squares attacked by the team's pieces
+     */
+    long attackedSquares(TeamColor color) {
+        int index = color.ordinal();
+        long key = board.positionHash();
+        if ((validAttackMaps & (1 << index)) == 0 || attackMapKeys[index] != key) {
+            attackMaps[index] = Attacks.attackedBy(board, color);
+            attackMapKeys[index] = key;
+            validAttackMaps |= 1 << index;
+        }
+        return attackMaps[index];
+    }
+
+    /**
+     * Starts the position history over from the current position
+     */
+    private void resetHistory() {
+        positionHistory = new long[0];
+        repetitions = 0;
+        if (board != null && teamTurn != null) {
+            recordPosition();
+        }
+    }
+
+    /**
+     * Adds the current position to the history and counts how often it has occurred.
+     * Only positions since the last capture or pawn move can match, and only every other
+     * one since the same team must be to move, so at most fifty entries are compared.
+     */
+    private void recordPosition() {
+        long hash = positionHash();
+        int keep = Math.min(Math.min(halfmoveClock, positionHistory.length), HISTORY_SIZE - 1);
+        int count = 1;
+        for (int back = 2; back <= keep; back += 2) {
+            if (positionHistory[positionHistory.length - back] == hash) {
+                count++;
+            }
+        }
+        var history = new long[keep + 1];
+        System.arraycopy(positionHistory, positionHistory.length - keep, history, 0, keep);
+        history[keep] = hash;
+        positionHistory = history;
+        repetitions = count;
+    }
+
+    /**
+     * @return castling rights still held, as a combination of the castling flags
+     */
+    int castlingRights() {
+        return castlingRights;
+    }
+
+    /**
+     * @return the square a pawn skipped over with a double move last turn, or
+     * {@link #NO_SQUARE}
+     */
+    int enPassantSquare() {
+        return enPassantSquare;
+    }
+
+    /**
+     * Sets the state that a FEN string records beyond the board and side to move
+     */
+    void setFenState(int castlingRights, int enPassantSquare, int halfmoveClock, int fullmoveNumber) {
+        this.castlingRights = castlingRights;
+        this.enPassantSquare = enPassantSquare;
+        this.halfmoveClock = halfmoveClock;
+        this.fullmoveNumber = fullmoveNumber;
+        resetHistory();
     }
 
     /**
@@ -105,6 +502,297 @@ public class ChessGame {
      * @return the chessboard
      */
     public ChessBoard getBoard() {
-        throw new RuntimeException("Not implemented");
+        return board;
+    }
+
+    /**
+     * Generates every legal move for the team whose turn it is
+     *
+     * @param out list to fill; it is cleared first
+     * @return the number of legal moves
+     */
+    public int generateLegalMoves(MoveList out) {
+        out.clear();
+        addLegalMoves(teamTurn, out);
+        return out.size();
+    }
+
+    /**
+     * Makes a move on the board in place without checking that it is legal, and passes
+     * the turn to the other team. The returned record holds everything
+     * {@link #undoMove(long)} needs to restore the previous state.
+     *
+     * @param move a packed move (see {@link ChessMove}), normally one produced by
+     *             {@link #generateLegalMoves(MoveList)}
+     * @return the undo record for this move
+     */
+    public long applyMove(int move) {
+        int from = ChessMove.from(move);
+        int to = ChessMove.to(move);
+        int piece = board.remove(from);
+        var color = ChessBoard.piece(piece).getTeamColor();
+        var type = ChessBoard.piece(piece).getPieceType();
+
+        long undo = move
+                | ((long) castlingRights << UNDO_CASTLING_SHIFT)
+                | ((long) (enPassantSquare + 1) << UNDO_EN_PASSANT_SHIFT)
+                | ((long) Math.min(halfmoveClock, MAX_UNDO_HALFMOVE) << UNDO_HALFMOVE_SHIFT);
+
+        int captured;
+        if (type == ChessPiece.PieceType.PAWN && to == enPassantSquare && from % 8 != to % 8) {
+            captured = board.remove(enPassantVictim(to, color));
+            undo |= UNDO_EN_PASSANT_CAPTURE;
+        } else {
+            captured = board.remove(to);
+        }
+        undo |= (long) (captured + 1) << UNDO_CAPTURE_SHIFT;
+
+        var promotion = ChessMove.promotion(move);
+        board.put(to, promotion == null ? piece : ChessBoard.pieceIndex(color, promotion));
+
+        if (type == ChessPiece.PieceType.KING && Math.abs(to - from) == 2) {
+            moveCastlingRook(from, to, false);
+        }
+
+        castlingRights &= CASTLING_MASK[from] & CASTLING_MASK[to];
+        enPassantSquare = type == ChessPiece.PieceType.PAWN && Math.abs(to - from) == 16
+                ? (from + to) / 2 : NO_SQUARE;
+        halfmoveClock = type == ChessPiece.PieceType.PAWN || captured != ChessBoard.EMPTY ? 0 : halfmoveClock + 1;
+        if (color == TeamColor.BLACK) {
+            fullmoveNumber++;
+        }
+        teamTurn = teamTurn.opponent();
+        return undo;
+    }
+
+    /**
+     * Makes a move on the board in place without checking that it is legal
+     *
+     * @see #applyMove(int)
+     */
+    public long applyMove(ChessMove move) {
+        return applyMove(move.pack());
+    }
+
+    /**
+     * Takes back the last move made with {@link #applyMove(int)}
+     *
+     * @param undo the record returned when the move was applied
+     */
+    public void undoMove(long undo) {
+        int move = (int) (undo & UNDO_MOVE_MASK);
+        int from = ChessMove.from(move);
+        int to = ChessMove.to(move);
+        teamTurn = teamTurn.opponent();
+
+        int piece = board.remove(to);
+        var color = ChessBoard.piece(piece).getTeamColor();
+        if (ChessMove.promotion(move) != null) {
+            piece = ChessBoard.pieceIndex(color, ChessPiece.PieceType.PAWN);
+        }
+        board.put(from, piece);
+
+        if (ChessBoard.piece(piece).getPieceType() == ChessPiece.PieceType.KING && Math.abs(to - from) == 2) {
+            moveCastlingRook(from, to, true);
+        }
+
+        int captured = (int) ((undo >>> UNDO_CAPTURE_SHIFT) & 0xF) - 1;
+        if (captured != ChessBoard.EMPTY) {
+            boolean enPassant = (undo & UNDO_EN_PASSANT_CAPTURE) != 0;
+            board.put(enPassant ? enPassantVictim(to, color) : to, captured);
+        }
+        castlingRights = (int) ((undo >>> UNDO_CASTLING_SHIFT) & 0xF);
+        enPassantSquare = (int) ((undo >>> UNDO_EN_PASSANT_SHIFT) & 0x7F) - 1;
+        halfmoveClock = (int) ((undo >>> UNDO_HALFMOVE_SHIFT) & MAX_UNDO_HALFMOVE);
+        if (color == TeamColor.BLACK) {
+            fullmoveNumber--;
+        }
+    }
+
+    /**
+     * A 64-bit Zobrist hash of the whole position: the pieces, the side to move, the
+     * castling rights, and the en passant square when the side to move can actually
+     * capture en passant. Two games that allow exactly the same moves hash the same, so
+     * the hash can be used to cache results, detect repetition and deduplicate games.
+     *
+     * @return the hash of this game's position
+     */
+    public long positionHash() {
+        long hash = board.positionHash() ^ Zobrist.sideToMove(teamTurn) ^ Zobrist.castling(castlingRights);
+        if (enPassantSquare != NO_SQUARE
+                && (Attacks.pawn(teamTurn.opponent(), enPassantSquare)
+                & board.pieces(teamTurn, ChessPiece.PieceType.PAWN)) != 0) {
+            hash ^= Zobrist.enPassant(enPassantSquare);
+        }
+        return hash;
+    }
+
+    /**
+     * @return the cache shared by every game for {@link #validMoves},
+     * {@link #isInCheckmate} and {@link #isInStalemate}
+     */
+    public static LegalMoveCache legalMoveCache() {
+        return LEGAL_MOVES;
+    }
+
+    /**
+     * Gets every legal move of a team, from the shared cache when the position has been
+     * seen before
+     *
+     * @return packed moves; the array is shared and must not be modified
+     */
+    private int[] cachedLegalMoves(TeamColor color) {
+        long key = positionHash() ^ (color == teamTurn ? 0L : Zobrist.waitingTeam());
+        int[] moves = LEGAL_MOVES.get(key);
+        if (moves == null) {
+            var legal = new MoveList();
+            addLegalMoves(color, legal);
+            moves = legal.toArray();
+            LEGAL_MOVES.put(key, moves);
+        }
+        return moves;
+    }
+
+    /**
+     * Adds the pseudo-legal moves of every piece of a team, including castling and
+     * en passant
+     */
+    private void addPseudoLegalMoves(TeamColor color, MoveList out) {
+        long pieces = board.occupancy(color);
+        while (pieces != 0) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            addPseudoLegalMoves(from, board.pieceAt(from), out);
+        }
+    }
+
+    private void addPseudoLegalMoves(int from, int piece, MoveList out) {
+        var color = ChessBoard.piece(piece).getTeamColor();
+        var type = ChessBoard.piece(piece).getPieceType();
+        MoveGenerator.pieceMoves(board, color, type, from, out);
+        if (type == ChessPiece.PieceType.PAWN && color == teamTurn && enPassantSquare != NO_SQUARE) {
+            MoveGenerator.enPassantMoves(color, from, enPassantSquare, out);
+        } else if (type == ChessPiece.PieceType.KING) {
+            MoveGenerator.castlingMoves(board, color, castlingRights, out);
+        }
+    }
+
+    /**
+     * Adds every legal move of a team. En passant is only possible for the team whose
+     * turn it is.
+     */
+    private void addLegalMoves(TeamColor color, MoveList out) {
+        int enPassant = color == teamTurn ? enPassantSquare : NO_SQUARE;
+        if (Long.bitCount(board.pieces(color, ChessPiece.PieceType.KING)) == 1) {
+            LegalMoveGenerator.legalMoves(board, color, castlingRights, enPassant, out);
+        } else {
+            candidates.clear();
+            addPseudoLegalMoves(color, candidates);
+            filterCandidates(color, out);
+        }
+    }
+
+    /**
+     * @return true if a team has at least one legal move
+     */
+    private boolean hasLegalMove(TeamColor color) {
+        int enPassant = color == teamTurn ? enPassantSquare : NO_SQUARE;
+        if (Long.bitCount(board.pieces(color, ChessPiece.PieceType.KING)) == 1) {
+            return LegalMoveGenerator.hasLegalMove(board, color, castlingRights, enPassant, candidates);
+        }
+        var legal = new MoveList();
+        addLegalMoves(color, legal);
+        return !legal.isEmpty();
+    }
+
+    /**
+     * Copies the moves in {@link #candidates} that do not leave the mover in check into
+     * {@code out}. Each candidate is tried by making and unmaking it on the game's own
+     * board, so no board copies are needed. This is only used for boards without
+     * exactly one king, which the pin and check masks of {@link LegalMoveGenerator}
+     * cannot describe.
+     */
+    private void filterCandidates(TeamColor color, MoveList out) {
+        for (int i = 0; i < candidates.size(); i++) {
+            int move = candidates.get(i);
+            long undo = applyMove(move);
+            boolean legal = !isKingAttacked(color);
+            undoMove(undo);
+            if (legal) {
+                out.add(move);
+            }
+        }
+    }
+
+    /**
+     * Checks a single king directly, which is cheaper than building a whole attack map
+     * for a position that is about to be unmade
+     */
+    private boolean isKingAttacked(TeamColor color) {
+        long king = board.pieces(color, ChessPiece.PieceType.KING);
+        return king != 0 && Attacks.isAttacked(board, Long.numberOfTrailingZeros(king), color.opponent());
+    }
+
+    private void moveCastlingRook(int kingFrom, int kingTo, boolean undo) {
+        boolean kingside = kingTo > kingFrom;
+        int rookHome = kingside ? kingFrom + 3 : kingFrom - 4;
+        int rookCastled = kingside ? kingFrom + 1 : kingFrom - 1;
+        int rook = board.remove(undo ? rookCastled : rookHome);
+        board.put(undo ? rookHome : rookCastled, rook);
+    }
+
+    /**
+     * @return the square of the pawn captured by an en passant move to {@code to}
+     */
+    private static int enPassantVictim(int to, TeamColor capturer) {
+        return capturer == TeamColor.WHITE ? to - 8 : to + 8;
+    }
+
+    private static int inferCastlingRights(ChessBoard board) {
+        int rights = 0;
+        if (hasPiece(board, 4, TeamColor.WHITE, ChessPiece.PieceType.KING)) {
+            if (hasPiece(board, 7, TeamColor.WHITE, ChessPiece.PieceType.ROOK)) {
+                rights |= WHITE_KINGSIDE;
+            }
+            if (hasPiece(board, 0, TeamColor.WHITE, ChessPiece.PieceType.ROOK)) {
+                rights |= WHITE_QUEENSIDE;
+            }
+        }
+        if (hasPiece(board, 60, TeamColor.BLACK, ChessPiece.PieceType.KING)) {
+            if (hasPiece(board, 63, TeamColor.BLACK, ChessPiece.PieceType.ROOK)) {
+                rights |= BLACK_KINGSIDE;
+            }
+            if (hasPiece(board, 56, TeamColor.BLACK, ChessPiece.PieceType.ROOK)) {
+                rights |= BLACK_QUEENSIDE;
+            }
+        }
+        return rights;
+    }
+
+    private static boolean hasPiece(ChessBoard board, int square, TeamColor color, ChessPiece.PieceType type) {
+        return (board.pieces(color, type) & (1L << square)) != 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ChessGame chessGame = (ChessGame) o;
+        return Objects.equals(board, chessGame.board) && teamTurn == chessGame.teamTurn
+                && castlingRights == chessGame.castlingRights && enPassantSquare == chessGame.enPassantSquare;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(positionHash());
+    }
+
+    @Override
+    public String toString() {
+        return teamTurn + " to move\n" + board;
     }
 }
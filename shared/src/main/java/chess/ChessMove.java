@@ -1,29 +1,55 @@
 package chess;
 
+import java.util.Objects;
+
 /**
  * Represents moving a chess piece on a chessboard
  * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
+ * <p>
+ * A move on the board can also be packed into a single {@code int}: bits 0-5 hold the
+ * start square, bits 6-11 the end square and bits 12-14 the promotion piece
+ * (0 for none, otherwise {@code PieceType.ordinal() + 1}). Squares are numbered
+ * {@code (row - 1) * 8 + (column - 1)}. {@link #of(int)} turns a packed move back into
+ * a shared instance, so move generation can hand out moves without allocating.
  */
 public class ChessMove {
 
+    private static final int SQUARE_MASK = 0x3F;
+    private static final int TO_SHIFT = 6;
+    private static final int PROMOTION_SHIFT = 12;
+    private static final int PACKED_MOVES = 1 << 15;
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    /**
+     * Filled lazily. Moves are immutable, so two threads racing to fill a slot is harmless.
+     */
+    private static final ChessMove[] MOVES = new ChessMove[PACKED_MOVES];
+
+    private final ChessPosition startPosition;
+    private final ChessPosition endPosition;
+    private final ChessPiece.PieceType promotionPiece;
+
     public ChessMove(ChessPosition startPosition, ChessPosition endPosition,
                      ChessPiece.PieceType promotionPiece) {
+        this.startPosition = startPosition;
+        this.endPosition = endPosition;
+        this.promotionPiece = promotionPiece;
     }
 
     /**
      * @return ChessPosition of starting location
      */
     public ChessPosition getStartPosition() {
-        throw new RuntimeException("Not implemented");
+        return startPosition;
     }
 
     /**
      * @return ChessPosition of ending location
      */
     public ChessPosition getEndPosition() {
-        throw new RuntimeException("Not implemented");
+        return endPosition;
     }
 
     /**
@@ -33,6 +59,78 @@ public class ChessMove {
      * @return Type of piece to promote a pawn to, or null if no promotion
      */
     public ChessPiece.PieceType getPromotionPiece() {
-        throw new RuntimeException("Not implemented");
+        return promotionPiece;
+    }
+
+    /**
+     * @return this move packed into an int
+     * @throws IllegalArgumentException if either position is not on the board
+     */
+    public int pack() {
+        return pack(ChessBoard.square(startPosition), ChessBoard.square(endPosition), promotionPiece);
+    }
+
+    /**
+     * Gets the shared move for a packed move
+     *
+     * @param packedMove a move packed as described by {@link ChessMove}
+     * @return a move equal to the one that was packed
+     * @throws IllegalArgumentException if the value is not a packed move
+     */
+    public static ChessMove of(int packedMove) {
+        if (packedMove < 0 || packedMove >= PACKED_MOVES || (packedMove >>> PROMOTION_SHIFT) > TYPES.length) {
+            throw new IllegalArgumentException("Invalid packed move " + packedMove + ": not a packed move");
+        }
+        var move = MOVES[packedMove];
+        if (move == null) {
+            move = new ChessMove(ChessPosition.ofSquare(from(packedMove)), ChessPosition.ofSquare(to(packedMove)),
+                    promotion(packedMove));
+            MOVES[packedMove] = move;
+        }
+        return move;
+    }
+
+    static int pack(int from, int to, ChessPiece.PieceType promotion) {
+        int promotionCode = promotion == null ? 0 : promotion.ordinal() + 1;
+        return from | (to << TO_SHIFT) | (promotionCode << PROMOTION_SHIFT);
+    }
+
+    static int from(int packedMove) {
+        return packedMove & SQUARE_MASK;
+    }
+
+    static int to(int packedMove) {
+        return (packedMove >>> TO_SHIFT) & SQUARE_MASK;
+    }
+
+    static ChessPiece.PieceType promotion(int packedMove) {
+        int promotionCode = packedMove >>> PROMOTION_SHIFT;
+        return promotionCode == 0 ? null : TYPES[promotionCode - 1];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ChessMove chessMove = (ChessMove) o;
+        return Objects.equals(startPosition, chessMove.startPosition)
+                && Objects.equals(endPosition, chessMove.endPosition)
+                && promotionPiece == chessMove.promotionPiece;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Objects.hashCode(startPosition);
+        result = 31 * result + Objects.hashCode(endPosition);
+        return 31 * result + (promotionPiece == null ? 0 : promotionPiece.ordinal() + 1);
+    }
+
+    @Override
+    public String toString() {
+        return startPosition + "->" + endPosition + (promotionPiece == null ? "" : "=" + promotionPiece);
     }
 }
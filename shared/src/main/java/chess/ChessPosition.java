@@ -8,7 +8,43 @@ package chess;
  */
 public class ChessPosition {
 
+    private static final ChessPosition[] SQUARES = new ChessPosition[64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            SQUARES[square] = new ChessPosition(square / 8 + 1, square % 8 + 1);
+        }
+    }
+
+    private final int row;
+    private final int col;
+
     public ChessPosition(int row, int col) {
+        this.row = row;
+        this.col = col;
+    }
+
+    /**
+     * Gets a position without allocating. Positions on the board come from a
+     * shared cache of 64 instances; anything else is created as usual.
+     *
+     * @param row 1 codes for the bottom row
+     * @param col 1 codes for the left column
+     * @return a position equal to {@code new ChessPosition(row, col)}
+     */
+    public static ChessPosition of(int row, int col) {
+        if (row < 1 || row > 8 || col < 1 || col > 8) {
+            return new ChessPosition(row, col);
+        }
+        return SQUARES[(row - 1) * 8 + (col - 1)];
+    }
+
+    /**
+     * @param square square index, 0 through 63, as used by {@link ChessBoard}
+     * @return the shared position for that square
+     */
+    static ChessPosition ofSquare(int square) {
+        return SQUARES[square];
     }
 
     /**
@@ -16,7 +52,7 @@ public class ChessPosition {
      * 1 codes for the bottom row
      */
     public int getRow() {
-        throw new RuntimeException("Not implemented");
+        return row;
     }
 
     /**
@@ -24,6 +60,28 @@ public class ChessPosition {
      * 1 codes for the left column
      */
     public int getColumn() {
-        throw new RuntimeException("Not implemented");
+        return col;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ChessPosition that = (ChessPosition) o;
+        return row == that.row && col == that.col;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * row + col;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[%d,%d]", row, col);
     }
 }
@@ -0,0 +1,165 @@
+package chess;
+
+/**
+ * Static evaluation used by {@link SearchEngine}: material plus piece-square tables.
+ * <p>
+ * The tables follow the well known "simplified evaluation function": they reward
+ * central knights, developed bishops, rooks on the seventh rank and advanced pawns, and
+ * keep the king sheltered while there is still material to attack it. The king moves
+ * to a centralizing table as material comes off the board. Material and position are
+ * folded into one table per piece, so evaluating a board is a walk over its pieces
+ * with one array lookup each.
+ */
+final class Evaluation {
+
+    /**
+     * Piece values in centipawns, indexed by {@link ChessPiece.PieceType} ordinal
+     */
+    static final int[] VALUES = {0, 900, 330, 320, 500, 100};
+
+    // Tables are laid out as the board is drawn for white: the 8th rank first
+    private static final int[] KING_MIDDLEGAME = {
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -20, -30, -30, -40, -40, -30, -30, -20,
+            -10, -20, -20, -20, -20, -20, -20, -10,
+            20, 20, 0, 0, 0, 0, 20, 20,
+            20, 30, 10, 0, 0, 10, 30, 20,
+    };
+    private static final int[] KING_ENDGAME = {
+            -50, -40, -30, -20, -20, -30, -40, -50,
+            -30, -20, -10, 0, 0, -10, -20, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -30, 0, 0, 0, 0, -30, -30,
+            -50, -30, -30, -30, -30, -30, -30, -50,
+    };
+    private static final int[] QUEEN = {
+            -20, -10, -10, -5, -5, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 5, 5, 5, 0, -10,
+            -5, 0, 5, 5, 5, 5, 0, -5,
+            0, 0, 5, 5, 5, 5, 0, -5,
+            -10, 5, 5, 5, 5, 5, 0, -10,
+            -10, 0, 5, 0, 0, 0, 0, -10,
+            -20, -10, -10, -5, -5, -10, -10, -20,
+    };
+    private static final int[] BISHOP = {
+            -20, -10, -10, -10, -10, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 10, 10, 5, 0, -10,
+            -10, 5, 5, 10, 10, 5, 5, -10,
+            -10, 0, 10, 10, 10, 10, 0, -10,
+            -10, 10, 10, 10, 10, 10, 10, -10,
+            -10, 5, 0, 0, 0, 0, 5, -10,
+            -20, -10, -10, -10, -10, -10, -10, -20,
+    };
+    private static final int[] KNIGHT = {
+            -50, -40, -30, -30, -30, -30, -40, -50,
+            -40, -20, 0, 0, 0, 0, -20, -40,
+            -30, 0, 10, 15, 15, 10, 0, -30,
+            -30, 5, 15, 20, 20, 15, 5, -30,
+            -30, 0, 15, 20, 20, 15, 0, -30,
+            -30, 5, 10, 15, 15, 10, 5, -30,
+            -40, -20, 0, 5, 5, 0, -20, -40,
+            -50, -40, -30, -30, -30, -30, -40, -50,
+    };
+    private static final int[] ROOK = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            5, 10, 10, 10, 10, 10, 10, 5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            0, 0, 0, 5, 5, 0, 0, 0,
+    };
+    private static final int[] PAWN = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            10, 10, 20, 30, 30, 20, 10, 10,
+            5, 5, 10, 25, 25, 10, 5, 5,
+            0, 0, 0, 20, 20, 0, 0, 0,
+            5, -5, -10, 0, 0, -10, -5, 5,
+            5, 10, 10, -20, -20, 10, 10, 5,
+            0, 0, 0, 0, 0, 0, 0, 0,
+    };
+
+    /**
+     * Combined knight, bishop, rook and queen material at or below which both kings
+     * switch to their endgame table
+     */
+    private static final int MIDDLEGAME_MATERIAL = 2 * VALUES[ChessPiece.PieceType.QUEEN.ordinal()]
+            + 4 * VALUES[ChessPiece.PieceType.ROOK.ordinal()];
+
+    /**
+     * Material plus position for each piece index and square, from white's point of view
+     */
+    private static final int[][] SCORES = new int[ChessBoard.PIECE_KINDS][64];
+    private static final int[][] KING_ENDGAME_SCORES = new int[2][64];
+
+    static {
+        int[][] tables = {KING_MIDDLEGAME, QUEEN, BISHOP, KNIGHT, ROOK, PAWN};
+        for (var color : ChessGame.TeamColor.values()) {
+            int sign = color == ChessGame.TeamColor.WHITE ? 1 : -1;
+            for (var type : ChessPiece.PieceType.values()) {
+                int piece = ChessBoard.pieceIndex(color, type);
+                for (int square = 0; square < 64; square++) {
+                    int index = tableIndex(color, square);
+                    SCORES[piece][square] = sign * (VALUES[type.ordinal()] + tables[type.ordinal()][index]);
+                }
+            }
+            for (int square = 0; square < 64; square++) {
+                KING_ENDGAME_SCORES[color.ordinal()][square] = sign * KING_ENDGAME[tableIndex(color, square)];
+            }
+        }
+    }
+
+    private Evaluation() {
+    }
+
+    /**
+     * @return the score of the position in centipawns, positive when it favors
+     * {@code side}
+     */
+    static int evaluate(ChessBoard board, ChessGame.TeamColor side) {
+        int score = 0;
+        int pieceMaterial = 0;
+        for (int piece = 0; piece < ChessBoard.PIECE_KINDS; piece++) {
+            var type = ChessBoard.piece(piece).getPieceType();
+            long squares = board.pieces(piece);
+            if (type != ChessPiece.PieceType.KING && type != ChessPiece.PieceType.PAWN) {
+                pieceMaterial += Long.bitCount(squares) * VALUES[type.ordinal()];
+            }
+            if (type == ChessPiece.PieceType.KING) {
+                continue;
+            }
+            while (squares != 0) {
+                score += SCORES[piece][Long.numberOfTrailingZeros(squares)];
+                squares &= squares - 1;
+            }
+        }
+        boolean endgame = pieceMaterial <= MIDDLEGAME_MATERIAL;
+        for (var color : ChessGame.TeamColor.values()) {
+            long king = board.pieces(color, ChessPiece.PieceType.KING);
+            if (king != 0) {
+                int square = Long.numberOfTrailingZeros(king);
+                score += endgame ? KING_ENDGAME_SCORES[color.ordinal()][square]
+                        : SCORES[ChessBoard.pieceIndex(color, ChessPiece.PieceType.KING)][square];
+            }
+        }
+        return side == ChessGame.TeamColor.WHITE ? score : -score;
+    }
+
+    /**
+     * @return the index into a table laid out for white of a team's square; black uses
+     * the table mirrored top to bottom
+     */
+    private static int tableIndex(ChessGame.TeamColor color, int square) {
+        return color == ChessGame.TeamColor.WHITE ? (7 - square / 8) * 8 + square % 8 : square;
+    }
+}
@@ -0,0 +1,270 @@
+package chess;
+
+import java.io.IOException;
+
+/**
+ * Reads and writes Forsyth-Edwards Notation (FEN), the standard one-line text form of a
+ * chess position, for example
+ * {@code rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1}.
+ * <p>
+ * Parsing walks the characters once, straight into the board's bitboards, without
+ * splitting strings or building intermediate objects.
+ */
+final class Fen {
+
+    static final String INITIAL = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private static final char[] CASTLING_SYMBOLS = {'K', 'Q', 'k', 'q'};
+
+    private Fen() {
+    }
+
+    /**
+     * Parses the piece placement field into an empty board
+     *
+     * @param fen   text starting with a piece placement field
+     * @param board empty board to place the pieces on
+     * @return the index just past the placement field
+     * @throws IllegalArgumentException if the placement field is malformed
+     */
+    static int parsePlacement(CharSequence fen, ChessBoard board) {
+        int row = 7;
+        int col = 0;
+        int i = 0;
+        for (; i < fen.length() && fen.charAt(i) != ' '; i++) {
+            char c = fen.charAt(i);
+            if (c == '/') {
+                if (col != 8 || row == 0) {
+                    throw malformed(fen, "rank " + (row + 1) + " does not have 8 squares");
+                }
+                row--;
+                col = 0;
+            } else if (c >= '1' && c <= '8') {
+                col += c - '0';
+            } else {
+                int piece = pieceIndex(c);
+                if (piece == ChessBoard.EMPTY) {
+                    throw malformed(fen, "unknown piece '" + c + "'");
+                }
+                if (col >= 8) {
+                    throw malformed(fen, "rank " + (row + 1) + " has more than 8 squares");
+                }
+                board.put(row * 8 + col, piece);
+                col++;
+            }
+            if (col > 8) {
+                throw malformed(fen, "rank " + (row + 1) + " has more than 8 squares");
+            }
+        }
+        if (row != 0 || col != 8) {
+            throw malformed(fen, "piece placement does not cover 8 ranks of 8 squares");
+        }
+        return i;
+    }
+
+    /**
+     * Parses the fields after the piece placement into a game whose board is already set
+     *
+     * @param fen   complete FEN text
+     * @param start index just past the placement field
+     * @param game  game to update
+     * @throws IllegalArgumentException if a field is malformed
+     */
+    static void parseState(CharSequence fen, int start, ChessGame game) {
+        int i = skipSpace(fen, start);
+        if (i >= fen.length()) {
+            throw malformed(fen, "missing side to move");
+        }
+        var side = switch (fen.charAt(i++)) {
+            case 'w' -> ChessGame.TeamColor.WHITE;
+            case 'b' -> ChessGame.TeamColor.BLACK;
+            default -> throw malformed(fen, "side to move must be 'w' or 'b'");
+        };
+        game.setTeamTurn(side);
+
+        i = skipSpace(fen, i);
+        int castling = 0;
+        if (i < fen.length() && fen.charAt(i) == '-') {
+            i++;
+        } else {
+            for (; i < fen.length() && fen.charAt(i) != ' '; i++) {
+                int flag = castlingFlag(fen.charAt(i));
+                if (flag == 0) {
+                    throw malformed(fen, "unknown castling right '" + fen.charAt(i) + "'");
+                }
+                castling |= flag;
+            }
+        }
+
+        i = skipSpace(fen, i);
+        int enPassant = ChessGame.NO_SQUARE;
+        if (i < fen.length() && fen.charAt(i) == '-') {
+            i++;
+        } else if (i + 1 < fen.length()) {
+            int file = fen.charAt(i) - 'a';
+            int rank = fen.charAt(i + 1) - '1';
+            if (file < 0 || file > 7 || rank < 0 || rank > 7) {
+                throw malformed(fen, "en passant square must be a square such as e3");
+            }
+            enPassant = rank * 8 + file;
+            String problem = enPassantProblem(game.getBoard(), side, enPassant);
+            if (problem != null) {
+                throw malformed(fen, problem);
+            }
+            i += 2;
+        } else {
+            throw malformed(fen, "missing castling rights or en passant square");
+        }
+
+        int halfmoveClock = 0;
+        int fullmoveNumber = 1;
+        i = skipSpace(fen, i);
+        if (i < fen.length()) {
+            halfmoveClock = parseNumber(fen, i);
+            i = skipSpace(fen, skipDigits(fen, i));
+            if (i < fen.length()) {
+                fullmoveNumber = parseNumber(fen, i);
+                i = skipSpace(fen, skipDigits(fen, i));
+            }
+        }
+        if (i < fen.length()) {
+            throw malformed(fen, "unexpected text after the move counters");
+        }
+        game.setFenState(castling, enPassant, halfmoveClock, Math.max(fullmoveNumber, 1));
+    }
+
+    /**
+     * Checks that an en passant square is one the last move could have created: the
+     * square a pawn of the team not to move just skipped over, which must be empty, with
+     * that pawn in front of it
+     *
+     * @param board  board the square is on
+     * @param side   team to move, which would make the capture
+     * @param square the en passant square
+     * @return what is wrong with the square, or null if it is possible
+     */
+    static String enPassantProblem(ChessBoard board, ChessGame.TeamColor side, int square) {
+        boolean white = side == ChessGame.TeamColor.WHITE;
+        if (square / 8 != (white ? 5 : 2)) {
+            return "en passant square must be on rank " + (white ? 6 : 3) + " when " + side + " is to move";
+        }
+        if (board.pieceAt(square) != ChessBoard.EMPTY) {
+            return "en passant square must be empty";
+        }
+        int pawn = ChessBoard.pieceIndex(side.opponent(), ChessPiece.PieceType.PAWN);
+        if (board.pieceAt(white ? square - 8 : square + 8) != pawn) {
+            return "no " + side.opponent() + " pawn has just moved past the en passant square";
+        }
+        return null;
+    }
+
+    /**
+     * Writes the piece placement field
+     */
+    static void writePlacement(ChessBoard board, Appendable out) throws IOException {
+        for (int row = 7; row >= 0; row--) {
+            int empty = 0;
+            for (int col = 0; col < 8; col++) {
+                int piece = board.pieceAt(row * 8 + col);
+                if (piece == ChessBoard.EMPTY) {
+                    empty++;
+                } else {
+                    if (empty > 0) {
+                        out.append((char) ('0' + empty));
+                        empty = 0;
+                    }
+                    out.append(ChessBoard.symbol(piece));
+                }
+            }
+            if (empty > 0) {
+                out.append((char) ('0' + empty));
+            }
+            if (row > 0) {
+                out.append('/');
+            }
+        }
+    }
+
+    /**
+     * Writes the castling rights field
+     */
+    static void writeCastling(int castlingRights, Appendable out) throws IOException {
+        if (castlingRights == 0) {
+            out.append('-');
+            return;
+        }
+        for (char symbol : CASTLING_SYMBOLS) {
+            if ((castlingRights & castlingFlag(symbol)) != 0) {
+                out.append(symbol);
+            }
+        }
+    }
+
+    /**
+     * Writes a square in algebraic form, such as {@code e3}, or {@code -} for none
+     */
+    static void writeSquare(int square, Appendable out) throws IOException {
+        if (square == ChessGame.NO_SQUARE) {
+            out.append('-');
+        } else {
+            out.append((char) ('a' + square % 8)).append((char) ('1' + square / 8));
+        }
+    }
+
+    /**
+     * @return the piece index for a FEN piece letter, or {@link ChessBoard#EMPTY}
+     */
+    static int pieceIndex(char symbol) {
+        var color = Character.isUpperCase(symbol) ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+        ChessPiece.PieceType type = switch (Character.toLowerCase(symbol)) {
+            case 'k' -> ChessPiece.PieceType.KING;
+            case 'q' -> ChessPiece.PieceType.QUEEN;
+            case 'b' -> ChessPiece.PieceType.BISHOP;
+            case 'n' -> ChessPiece.PieceType.KNIGHT;
+            case 'r' -> ChessPiece.PieceType.ROOK;
+            case 'p' -> ChessPiece.PieceType.PAWN;
+            default -> null;
+        };
+        return type == null ? ChessBoard.EMPTY : ChessBoard.pieceIndex(color, type);
+    }
+
+    private static int castlingFlag(char symbol) {
+        return switch (symbol) {
+            case 'K' -> ChessGame.WHITE_KINGSIDE;
+            case 'Q' -> ChessGame.WHITE_QUEENSIDE;
+            case 'k' -> ChessGame.BLACK_KINGSIDE;
+            case 'q' -> ChessGame.BLACK_QUEENSIDE;
+            default -> 0;
+        };
+    }
+
+    private static int skipSpace(CharSequence fen, int i) {
+        while (i < fen.length() && fen.charAt(i) == ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipDigits(CharSequence fen, int i) {
+        while (i < fen.length() && Character.isDigit(fen.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int parseNumber(CharSequence fen, int i) {
+        int end = skipDigits(fen, i);
+        if (end == i || end - i > 9) {
+            throw malformed(fen, "move counters must be whole numbers");
+        }
+        int value = 0;
+        for (; i < end; i++) {
+            value = value * 10 + (fen.charAt(i) - '0');
+        }
+        return value;
+    }
+
+    private static IllegalArgumentException malformed(CharSequence fen, String problem) {
+        return new IllegalArgumentException("Invalid FEN \"" + fen + "\": " + problem);
+    }
+}
@@ -0,0 +1,130 @@
+package chess;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * A compact, versioned binary form of a {@link ChessGame}, for storing games and sending
+ * them over the network without the reflection and text overhead of JSON.
+ * <p>
+ * Version 1 takes {@value #ENCODED_LENGTH} bytes:
+ * <ul>
+ *     <li>1 byte: format version</li>
+ *     <li>32 bytes: the 64 squares, bottom row first, 4 bits each (0 for empty, otherwise the
+ *     piece index plus one), the lower numbered square in the low nibble</li>
+ *     <li>1 byte: bit 0 set when black is to move, bits 1-4 the castling rights</li>
+ *     <li>1 byte: en passant square plus one, or 0 for none</li>
+ *     <li>2 bytes: halfmove clock</li>
+ *     <li>2 bytes: fullmove number</li>
+ * </ul>
+ * Multi-byte values are big-endian. Counters too large for 16 bits are clamped.
+ */
+public final class GameCodec {
+
+    public static final byte VERSION = 1;
+    public static final int ENCODED_LENGTH = 39;
+
+    private static final int MAX_COUNTER = 0xFFFF;
+
+    private GameCodec() {
+    }
+
+    /**
+     * @param game game to encode
+     * @return the encoded game
+     */
+    public static byte[] encode(ChessGame game) {
+        var buffer = ByteBuffer.allocate(ENCODED_LENGTH);
+        encode(game, buffer);
+        return buffer.array();
+    }
+
+    /**
+     * Writes an encoded game at the buffer's position
+     *
+     * @param game   game to encode
+     * @param buffer buffer with at least {@value #ENCODED_LENGTH} bytes remaining
+     */
+    public static void encode(ChessGame game, ByteBuffer buffer) {
+        var board = game.getBoard();
+        buffer.put(VERSION);
+        for (int square = 0; square < 64; square += 2) {
+            int low = board.pieceAt(square) + 1;
+            int high = board.pieceAt(square + 1) + 1;
+            buffer.put((byte) (low | (high << 4)));
+        }
+        int flags = (game.getTeamTurn() == ChessGame.TeamColor.BLACK ? 1 : 0) | (game.castlingRights() << 1);
+        buffer.put((byte) flags);
+        buffer.put((byte) (game.enPassantSquare() + 1));
+        buffer.putShort((short) Math.min(game.getHalfmoveClock(), MAX_COUNTER));
+        buffer.putShort((short) Math.min(game.getFullmoveNumber(), MAX_COUNTER));
+    }
+
+    /**
+     * @param encoded bytes produced by {@link #encode(ChessGame)}
+     * @return the decoded game
+     * @throws IllegalArgumentException if the bytes are not a valid encoded game
+     */
+    public static ChessGame decode(byte[] encoded) {
+        var buffer = ByteBuffer.wrap(encoded);
+        var game = decode(buffer);
+        if (buffer.hasRemaining()) {
+            throw new IllegalArgumentException("Encoded game has " + buffer.remaining() + " extra bytes");
+        }
+        return game;
+    }
+
+    /**
+     * Reads an encoded game from the buffer's position
+     *
+     * @param buffer buffer holding an encoded game
+     * @return the decoded game
+     * @throws IllegalArgumentException if the bytes are not a valid encoded game
+     */
+    public static ChessGame decode(ByteBuffer buffer) {
+        try {
+            byte version = buffer.get();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported encoded game version " + version);
+            }
+            var board = new ChessBoard();
+            for (int square = 0; square < 64; square += 2) {
+                int packed = buffer.get() & 0xFF;
+                putPiece(board, square, packed & 0xF);
+                putPiece(board, square + 1, packed >>> 4);
+            }
+            int flags = buffer.get() & 0xFF;
+            int enPassantSquare = (buffer.get() & 0xFF) - 1;
+            int halfmoveClock = buffer.getShort() & MAX_COUNTER;
+            int fullmoveNumber = buffer.getShort() & MAX_COUNTER;
+            if (flags > 0x1F || enPassantSquare >= 64) {
+                throw new IllegalArgumentException("Encoded game has invalid state flags");
+            }
+
+            var side = (flags & 1) == 0 ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+            if (enPassantSquare != ChessGame.NO_SQUARE) {
+                String problem = Fen.enPassantProblem(board, side, enPassantSquare);
+                if (problem != null) {
+                    throw new IllegalArgumentException("Encoded game has an invalid en passant square: " + problem);
+                }
+            }
+
+            var game = new ChessGame();
+            game.setBoard(board);
+            game.setTeamTurn(side);
+            game.setFenState(flags >>> 1, enPassantSquare, halfmoveClock, Math.max(fullmoveNumber, 1));
+            return game;
+        } catch (BufferUnderflowException ex) {
+            throw new IllegalArgumentException("Encoded game is truncated", ex);
+        }
+    }
+
+    private static void putPiece(ChessBoard board, int square, int code) {
+        if (code > ChessBoard.PIECE_KINDS) {
+            throw new IllegalArgumentException("Encoded game has an invalid piece on square " + square);
+        }
+        if (code != 0) {
+            board.put(square, code - 1);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package chess;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, thread-safe cache of legal moves keyed by a 64-bit position hash.
+ * <p>
+ * Entries are spread over independently locked segments, and each segment evicts its
+ * least recently used entry once it is full, so threads working on different positions
+ * rarely wait on each other. Hit, miss and eviction counts are kept for monitoring.
+ * <p>
+ * Keys are Zobrist hashes (see {@link ChessGame#positionHash()}); two different positions
+ * sharing a 64-bit hash is possible in principle but vanishingly unlikely.
+ */
+public final class LegalMoveCache {
+
+    private static final int SEGMENTS = 64;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maximumSize the most entries the cache holds before it starts evicting
+     */
+    public LegalMoveCache(int maximumSize) {
+        if (maximumSize < SEGMENTS) {
+            throw new IllegalArgumentException("Cache must hold at least " + SEGMENTS + " entries");
+        }
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(maximumSize / SEGMENTS);
+        }
+    }
+
+    /**
+     * @param key position hash
+     * @return the cached packed moves, or null if the position is not cached. The
+     * array is shared and must not be modified.
+     */
+    int[] get(long key) {
+        var segment = segment(key);
+        int[] moves;
+        synchronized (segment) {
+            moves = segment.get(key);
+        }
+        if (moves == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return moves;
+    }
+
+    /**
+     * @param key   position hash
+     * @param moves packed moves; the cache keeps the array, so it must not be modified
+     */
+    void put(long key, int[] moves) {
+        var segment = segment(key);
+        synchronized (segment) {
+            segment.put(key, moves);
+        }
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return the fraction of lookups that were hits, or 0 if there have been none
+     */
+    public double hitRate() {
+        long hits = hits();
+        long total = hits + misses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * @return the number of cached positions
+     */
+    public int size() {
+        int size = 0;
+        for (var segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Removes every entry. The hit, miss and eviction counts are kept.
+     */
+    public void clear() {
+        for (var segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LegalMoveCache[size=%d, hits=%d, misses=%d, evictions=%d]",
+                size(), hits(), misses(), evictions());
+    }
+
+    private Segment segment(long key) {
+        return segments[(int) (key >>> 58)];
+    }
+
+    private final class Segment extends LinkedHashMap<Long, int[]> {
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, int[]> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
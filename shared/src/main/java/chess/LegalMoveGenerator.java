@@ -0,0 +1,149 @@
+package chess;
+
+/**
+ * Generates strictly legal moves without trying them on the board.
+ * <p>
+ * Each position is analysed once up front: the enemy pieces giving check, the squares a
+ * non-king move must land on to deal with that check (the checker itself, or a square
+ * blocking its line), and the pieces pinned to their king along with the line each may
+ * still move on. Every piece's targets are then masked down to legal ones, so the cost
+ * is roughly one table lookup per piece plus one attack test per king move.
+ * <p>
+ * En passant is the one exception to the masks, because removing two pawns from a rank
+ * at once can uncover a check that no pin detects. Those captures, rare as they are,
+ * are checked against the occupancy they would leave behind.
+ */
+final class LegalMoveGenerator {
+
+    private LegalMoveGenerator() {
+    }
+
+    /**
+     * Adds every legal move of a team. The team must have exactly one king.
+     *
+     * @param board           board to generate moves on
+     * @param color           team to move
+     * @param castlingRights  castling rights still held, as {@link ChessGame} flags
+     * @param enPassantSquare square available for an en passant capture, or
+     *                        {@link ChessGame#NO_SQUARE}
+     * @param out             list to add the moves to
+     */
+    static void legalMoves(ChessBoard board, ChessGame.TeamColor color, int castlingRights, int enPassantSquare,
+                           MoveList out) {
+        generate(board, color, castlingRights, enPassantSquare, out, false);
+    }
+
+    /**
+     * Checks whether a team has any legal move, stopping at the first one found. The
+     * team must have exactly one king.
+     *
+     * @param scratch list to use while generating; its contents are replaced
+     * @see #legalMoves
+     */
+    static boolean hasLegalMove(ChessBoard board, ChessGame.TeamColor color, int castlingRights,
+                                int enPassantSquare, MoveList scratch) {
+        scratch.clear();
+        return generate(board, color, castlingRights, enPassantSquare, scratch, true);
+    }
+
+    /**
+     * Adds legal moves, the other pieces' first and the king's last, since those are
+     * the cheapest to prove legal
+     *
+     * @param firstOnly stop as soon as one move has been added
+     * @return true if any move was added
+     */
+    private static boolean generate(ChessBoard board, ChessGame.TeamColor color, int castlingRights,
+                                    int enPassantSquare, MoveList out, boolean firstOnly) {
+        int before = out.size();
+        var enemy = color.opponent();
+        long own = board.occupancy(color);
+        long occupied = board.occupied();
+        long kingBit = board.pieces(color, ChessPiece.PieceType.KING);
+        int king = Long.numberOfTrailingZeros(kingBit);
+        long checkers = Attacks.attackersTo(board, king, enemy, occupied);
+
+        if (Long.bitCount(checkers) <= 1) {
+            long checkMask = checkers == 0 ? -1L
+                    : checkers | Attacks.between(king, Long.numberOfTrailingZeros(checkers));
+            long pinned = 0;
+            long[] pinLines = null;
+            long enemyOccupancy = board.occupancy(enemy);
+            long enemyQueens = board.pieces(enemy, ChessPiece.PieceType.QUEEN);
+            long snipers = (Attacks.rook(king, enemyOccupancy)
+                    & (board.pieces(enemy, ChessPiece.PieceType.ROOK) | enemyQueens))
+                    | (Attacks.bishop(king, enemyOccupancy)
+                    & (board.pieces(enemy, ChessPiece.PieceType.BISHOP) | enemyQueens));
+            while (snipers != 0) {
+                int sniper = Long.numberOfTrailingZeros(snipers);
+                snipers &= snipers - 1;
+                long line = Attacks.between(king, sniper);
+                long blockers = line & occupied;
+                if (Long.bitCount(blockers) == 1 && (blockers & own) != 0) {
+                    if (pinLines == null) {
+                        pinLines = new long[64];
+                    }
+                    pinned |= blockers;
+                    pinLines[Long.numberOfTrailingZeros(blockers)] = line | (1L << sniper);
+                }
+            }
+
+            long pieces = own & ~kingBit;
+            while (pieces != 0) {
+                int from = Long.numberOfTrailingZeros(pieces);
+                pieces &= pieces - 1;
+                var type = ChessBoard.piece(board.pieceAt(from)).getPieceType();
+                boolean pawn = type == ChessPiece.PieceType.PAWN;
+                long targets = pawn ? MoveGenerator.pawnTargets(board, color, from)
+                        : Attacks.piece(type, from, occupied) & ~own;
+                targets &= checkMask;
+                if ((pinned & (1L << from)) != 0) {
+                    targets &= pinLines[from];
+                }
+                if (firstOnly && targets != 0) {
+                    out.add(ChessMove.pack(from, Long.numberOfTrailingZeros(targets), null));
+                    return true;
+                }
+                MoveGenerator.addMoves(from, targets, pawn, out);
+            }
+
+            if (enPassantSquare != ChessGame.NO_SQUARE) {
+                enPassantMoves(board, color, king, enPassantSquare, out);
+            }
+            if (checkers == 0) {
+                MoveGenerator.castlingMoves(board, color, castlingRights, out);
+            }
+            if (firstOnly && out.size() > before) {
+                return true;
+            }
+        }
+
+        long kingTargets = Attacks.king(king) & ~own;
+        while (kingTargets != 0) {
+            int to = Long.numberOfTrailingZeros(kingTargets);
+            kingTargets &= kingTargets - 1;
+            if (Attacks.attackersTo(board, to, enemy, occupied ^ kingBit) == 0) {
+                out.add(ChessMove.pack(king, to, null));
+                if (firstOnly) {
+                    return true;
+                }
+            }
+        }
+        return out.size() > before;
+    }
+
+    private static void enPassantMoves(ChessBoard board, ChessGame.TeamColor color, int king, int enPassantSquare,
+                                       MoveList out) {
+        long victim = color == ChessGame.TeamColor.WHITE ? 1L << (enPassantSquare - 8) : 1L << (enPassantSquare + 8);
+        long capturers = Attacks.pawn(color.opponent(), enPassantSquare)
+                & board.pieces(color, ChessPiece.PieceType.PAWN);
+        while (capturers != 0) {
+            int from = Long.numberOfTrailingZeros(capturers);
+            capturers &= capturers - 1;
+            long occupied = (board.occupied() & ~((1L << from) | victim)) | (1L << enPassantSquare);
+            if ((Attacks.attackersTo(board, king, color.opponent(), occupied) & ~victim) == 0) {
+                out.add(ChessMove.pack(from, enPassantSquare, null));
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package chess;
+
+/**
+ * Generates pseudo-legal moves, which follow each piece's movement rules but may
+ * leave the mover's own king in check. Moves are written into a {@link MoveList}
+ * as packed ints.
+ */
+final class MoveGenerator {
+
+    private static final ChessPiece.PieceType[] PROMOTIONS = {
+            ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK,
+            ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT,
+    };
+
+    private static final long FIRST_RANK = 0xFFL;
+    private static final long LAST_RANK = 0xFFL << 56;
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Adds the pseudo-legal moves of every piece a team has on the board
+     */
+    static void teamMoves(ChessBoard board, ChessGame.TeamColor color, MoveList out) {
+        long pieces = board.occupancy(color);
+        while (pieces != 0) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            var type = ChessBoard.piece(board.pieceAt(from)).getPieceType();
+            pieceMoves(board, color, type, from, out);
+        }
+    }
+
+    /**
+     * Adds the pseudo-legal moves of a single piece
+     *
+     * @param board board the piece is on
+     * @param color team the piece belongs to
+     * @param type  type of the piece
+     * @param from  square the piece is on
+     * @param out   list to add the moves to
+     */
+    static void pieceMoves(ChessBoard board, ChessGame.TeamColor color, ChessPiece.PieceType type, int from,
+                           MoveList out) {
+        if (type == ChessPiece.PieceType.PAWN) {
+            addMoves(from, pawnTargets(board, color, from), true, out);
+        } else {
+            addMoves(from, Attacks.piece(type, from, board.occupied()) & ~board.occupancy(color), false, out);
+        }
+    }
+
+    /**
+     * Adds the en passant capture a pawn can make, if any
+     *
+     * @param color           team the pawn belongs to
+     * @param from            square the pawn is on
+     * @param enPassantSquare square a pawn skipped over with a double move on the previous turn
+     * @param out             list to add the move to
+     */
+    static void enPassantMoves(ChessGame.TeamColor color, int from, int enPassantSquare, MoveList out) {
+        if ((Attacks.pawn(color, from) & (1L << enPassantSquare)) != 0) {
+            out.add(ChessMove.pack(from, enPassantSquare, null));
+        }
+    }
+
+    /**
+     * Adds the castling moves a king can make. The king may not castle out of, through,
+     * or into check, and every square between the king and rook must be empty.
+     *
+     * @param board          board the king is on
+     * @param color          team the king belongs to
+     * @param castlingRights castling rights still held, as {@link ChessGame} flags
+     * @param out            list to add the moves to
+     */
+    static void castlingMoves(ChessBoard board, ChessGame.TeamColor color, int castlingRights, MoveList out) {
+        boolean white = color == ChessGame.TeamColor.WHITE;
+        int home = white ? 4 : 60;
+        int kingside = white ? ChessGame.WHITE_KINGSIDE : ChessGame.BLACK_KINGSIDE;
+        int queenside = white ? ChessGame.WHITE_QUEENSIDE : ChessGame.BLACK_QUEENSIDE;
+        if ((castlingRights & (kingside | queenside)) == 0
+                || (board.pieces(color, ChessPiece.PieceType.KING) & (1L << home)) == 0) {
+            return;
+        }
+        var enemy = color.opponent();
+        if (Attacks.isAttacked(board, home, enemy)) {
+            return;
+        }
+        long rooks = board.pieces(color, ChessPiece.PieceType.ROOK);
+        long occupied = board.occupied();
+        if ((castlingRights & kingside) != 0 && (rooks & (1L << (home + 3))) != 0
+                && (occupied & (0x3L << (home + 1))) == 0
+                && !Attacks.isAttacked(board, home + 1, enemy) && !Attacks.isAttacked(board, home + 2, enemy)) {
+            out.add(ChessMove.pack(home, home + 2, null));
+        }
+        if ((castlingRights & queenside) != 0 && (rooks & (1L << (home - 4))) != 0
+                && (occupied & (0x7L << (home - 3))) == 0
+                && !Attacks.isAttacked(board, home - 1, enemy) && !Attacks.isAttacked(board, home - 2, enemy)) {
+            out.add(ChessMove.pack(home, home - 2, null));
+        }
+    }
+
+    /**
+     * @return the squares a pawn can move or capture to, not counting en passant
+     */
+    static long pawnTargets(ChessBoard board, ChessGame.TeamColor color, int from) {
+        boolean white = color == ChessGame.TeamColor.WHITE;
+        int forward = white ? 8 : -8;
+        int startRow = white ? 1 : 6;
+
+        long targets = Attacks.pawn(color, from) & board.occupancy(color.opponent());
+        int single = from + forward;
+        if (single >= 0 && single < 64 && (board.occupied() & (1L << single)) == 0) {
+            targets |= 1L << single;
+            int twice = single + forward;
+            if (from / 8 == startRow && (board.occupied() & (1L << twice)) == 0) {
+                targets |= 1L << twice;
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * Adds a move from one square to each target square, or every promotion for pawn
+     * moves that reach the last rank
+     */
+    static void addMoves(int from, long targets, boolean pawn, MoveList out) {
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            if (pawn && ((1L << to) & (FIRST_RANK | LAST_RANK)) != 0) {
+                for (var promotion : PROMOTIONS) {
+                    out.add(ChessMove.pack(from, to, promotion));
+                }
+            } else {
+                out.add(ChessMove.pack(from, to, null));
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A reusable list of moves packed as ints (see {@link ChessMove}).
+ * <p>
+ * Move generation writes into a caller-owned list instead of building a new
+ * collection of {@link ChessMove} objects, so a list can be cleared and refilled for
+ * every position without producing garbage.
+ */
+public final class MoveList {
+
+    /**
+     * More than the largest number of moves any legal chess position has
+     */
+    static final int DEFAULT_CAPACITY = 256;
+
+    private int[] moves;
+    private int size;
+
+    public MoveList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MoveList(int capacity) {
+        moves = new int[capacity];
+    }
+
+    /**
+     * @return the number of moves in the list
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param index position in the list
+     * @return the packed move at that position
+     */
+    public int get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return moves[index];
+    }
+
+    /**
+     * @param index position in the list
+     * @return the move at that position as a shared {@link ChessMove}
+     */
+    public ChessMove move(int index) {
+        return ChessMove.of(get(index));
+    }
+
+    /**
+     * Replaces the packed move at a position in the list
+     */
+    public void set(int index, int packedMove) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        moves[index] = packedMove;
+    }
+
+    /**
+     * Appends a packed move
+     */
+    public void add(int packedMove) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, moves.length * 2);
+        }
+        moves[size++] = packedMove;
+    }
+
+    /**
+     * @return true if the packed move is in the list
+     */
+    public boolean contains(int packedMove) {
+        for (int i = 0; i < size; i++) {
+            if (moves[i] == packedMove) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Empties the list without releasing its storage
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return a copy of the packed moves
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(moves, size);
+    }
+
+    /**
+     * @return the moves as {@link ChessMove} objects
+     */
+    public List<ChessMove> toList() {
+        var list = new ArrayList<ChessMove>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(ChessMove.of(moves[i]));
+        }
+        return list;
+    }
+
+    @Override
+    public String toString() {
+        return toList().toString();
+    }
+}
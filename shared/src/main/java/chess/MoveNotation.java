@@ -0,0 +1,317 @@
+package chess;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Reads and writes moves as text, in long algebraic notation as used by the UCI
+ * protocol ({@code e2e4}, {@code e7e8q}) and in standard algebraic notation (SAN,
+ * {@code e4}, {@code Nbd7}, {@code exd8=Q+}, {@code O-O}).
+ * <p>
+ * UCI moves name both squares, so they convert without looking at a game. SAN only
+ * names what is needed to tell the move apart from the other legal moves, so reading
+ * and writing it needs the game the move is played in. Parsing walks the text's
+ * characters directly and matches them against the game's packed legal moves.
+ */
+public final class MoveNotation {
+
+    private MoveNotation() {
+    }
+
+    /**
+     * Parses a move in UCI notation, such as {@code e2e4} or {@code e7e8q}
+     *
+     * @return the move, which is not checked for legality
+     * @throws IllegalArgumentException if the text is not a UCI move
+     */
+    public static ChessMove parseUci(CharSequence uci) {
+        if (uci.length() != 4 && uci.length() != 5) {
+            throw malformed(uci, "UCI moves are 4 or 5 characters long");
+        }
+        int from = parseSquare(uci, 0);
+        int to = parseSquare(uci, 2);
+        ChessPiece.PieceType promotion = null;
+        if (uci.length() == 5) {
+            promotion = promotionType(Character.toUpperCase(uci.charAt(4)));
+            if (promotion == null) {
+                throw malformed(uci, "unknown promotion piece '" + uci.charAt(4) + "'");
+            }
+        }
+        return ChessMove.of(ChessMove.pack(from, to, promotion));
+    }
+
+    /**
+     * Writes a move in UCI notation
+     *
+     * @throws IOException if {@code out} fails
+     */
+    public static void writeUci(ChessMove move, Appendable out) throws IOException {
+        int packed = move.pack();
+        Fen.writeSquare(ChessMove.from(packed), out);
+        Fen.writeSquare(ChessMove.to(packed), out);
+        var promotion = move.getPromotionPiece();
+        if (promotion != null) {
+            out.append(Character.toLowerCase(letter(promotion)));
+        }
+    }
+
+    /**
+     * @return the move in UCI notation
+     */
+    public static String toUci(ChessMove move) {
+        var uci = new StringBuilder(5);
+        try {
+            writeUci(move, uci);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return uci.toString();
+    }
+
+    /**
+     * Parses a move in standard algebraic notation for the team whose turn it is.
+     * Check and annotation marks such as {@code +}, {@code #}, {@code !} and {@code ?}
+     * are accepted and ignored, as are castling written with zeros and promotions
+     * written without {@code =}.
+     *
+     * @param game game the move is played in
+     * @param san  the move, such as {@code Nf3}
+     * @return the legal move the text describes
+     * @throws IllegalArgumentException if the text is malformed, or does not describe
+     *                                  exactly one legal move
+     */
+    public static ChessMove parseSan(ChessGame game, CharSequence san) {
+        int end = san.length();
+        while (end > 0 && "+#!?".indexOf(san.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        if (end < 2) {
+            throw malformed(san, "too short");
+        }
+
+        var moves = new MoveList();
+        game.generateLegalMoves(moves);
+        var board = game.getBoard();
+
+        if (isCastling(san, end)) {
+            boolean kingside = end == 3;
+            for (int i = 0; i < moves.size(); i++) {
+                int move = moves.get(i);
+                int from = ChessMove.from(move);
+                int to = ChessMove.to(move);
+                if (typeAt(board, from) == ChessPiece.PieceType.KING && to - from == (kingside ? 2 : -2)) {
+                    return moves.move(i);
+                }
+            }
+            throw malformed(san, "castling is not legal");
+        }
+
+        int start = 0;
+        var type = pieceType(san.charAt(0));
+        if (type == null) {
+            type = ChessPiece.PieceType.PAWN;
+        } else {
+            start = 1;
+        }
+
+        ChessPiece.PieceType promotion = null;
+        if (type == ChessPiece.PieceType.PAWN) {
+            promotion = promotionType(san.charAt(end - 1));
+            if (promotion != null) {
+                end -= san.charAt(end - 2) == '=' ? 2 : 1;
+            }
+        }
+        if (end - start < 2) {
+            throw malformed(san, "missing destination square");
+        }
+        int to = parseSquare(san, end - 2);
+
+        int fromFile = -1;
+        int fromRank = -1;
+        for (int i = start; i < end - 2; i++) {
+            char c = san.charAt(i);
+            if (c >= 'a' && c <= 'h') {
+                fromFile = c - 'a';
+            } else if (c >= '1' && c <= '8') {
+                fromRank = c - '1';
+            } else if (c != 'x' && c != ':') {
+                throw malformed(san, "unexpected '" + c + "'");
+            }
+        }
+
+        int match = -1;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int from = ChessMove.from(move);
+            if (ChessMove.to(move) == to && ChessMove.promotion(move) == promotion && typeAt(board, from) == type
+                    && (fromFile < 0 || from % 8 == fromFile) && (fromRank < 0 || from / 8 == fromRank)) {
+                if (match >= 0) {
+                    throw malformed(san, "ambiguous move");
+                }
+                match = i;
+            }
+        }
+        if (match < 0) {
+            throw malformed(san, "no such legal move");
+        }
+        return moves.move(match);
+    }
+
+    /**
+     * Writes a legal move in standard algebraic notation, marked with {@code +} if it
+     * gives check or {@code #} if it checkmates. The move is briefly made on the game to
+     * find out, so the game must not be used by another thread meanwhile.
+     *
+     * @param game game the move is played in, with the moving team to move
+     * @param move a legal move
+     * @throws IOException if {@code out} fails
+     */
+    public static void writeSan(ChessGame game, ChessMove move, Appendable out) throws IOException {
+        int packed = move.pack();
+        int from = ChessMove.from(packed);
+        int to = ChessMove.to(packed);
+        var board = game.getBoard();
+        var type = typeAt(board, from);
+        if (type == null) {
+            throw new IllegalArgumentException("No piece to move for " + move);
+        }
+        boolean capture = board.pieceAt(to) != ChessBoard.EMPTY
+                || (type == ChessPiece.PieceType.PAWN && from % 8 != to % 8);
+
+        if (type == ChessPiece.PieceType.KING && Math.abs(to - from) == 2) {
+            out.append(to > from ? "O-O" : "O-O-O");
+        } else if (type == ChessPiece.PieceType.PAWN) {
+            if (capture) {
+                out.append((char) ('a' + from % 8)).append('x');
+            }
+            Fen.writeSquare(to, out);
+            if (move.getPromotionPiece() != null) {
+                out.append('=').append(letter(move.getPromotionPiece()));
+            }
+        } else {
+            out.append(letter(type));
+            writeDisambiguation(game, type, from, to, out);
+            if (capture) {
+                out.append('x');
+            }
+            Fen.writeSquare(to, out);
+        }
+
+        long undo = game.applyMove(packed);
+        boolean check = game.isInCheck(game.getTeamTurn());
+        boolean mate = check && game.status() == ChessGame.GameStatus.CHECKMATE;
+        game.undoMove(undo);
+        if (mate) {
+            out.append('#');
+        } else if (check) {
+            out.append('+');
+        }
+    }
+
+    /**
+     * @return the legal move in standard algebraic notation
+     * @see #writeSan(ChessGame, ChessMove, Appendable)
+     */
+    public static String toSan(ChessGame game, ChessMove move) {
+        var san = new StringBuilder(8);
+        try {
+            writeSan(game, move, san);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return san.toString();
+    }
+
+    /**
+     * Adds the file, rank or both of the moving piece when another piece of the same
+     * type could also move to the destination: the file if that tells them apart, else
+     * the rank, else the whole square
+     */
+    private static void writeDisambiguation(ChessGame game, ChessPiece.PieceType type, int from, int to,
+                                            Appendable out) throws IOException {
+        var moves = new MoveList();
+        game.generateLegalMoves(moves);
+        boolean ambiguous = false;
+        boolean sameFile = false;
+        boolean sameRank = false;
+        for (int i = 0; i < moves.size(); i++) {
+            int other = ChessMove.from(moves.get(i));
+            if (ChessMove.to(moves.get(i)) == to && other != from && typeAt(game.getBoard(), other) == type) {
+                ambiguous = true;
+                sameFile |= other % 8 == from % 8;
+                sameRank |= other / 8 == from / 8;
+            }
+        }
+        if (!ambiguous) {
+            return;
+        }
+        if (!sameFile) {
+            out.append((char) ('a' + from % 8));
+        } else if (!sameRank) {
+            out.append((char) ('1' + from / 8));
+        } else {
+            Fen.writeSquare(from, out);
+        }
+    }
+
+    private static boolean isCastling(CharSequence san, int end) {
+        char zero = san.charAt(0);
+        if ((zero != 'O' && zero != '0') || (end != 3 && end != 5)) {
+            return false;
+        }
+        for (int i = 1; i < end; i++) {
+            if (san.charAt(i) != (i % 2 == 1 ? '-' : zero)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static ChessPiece.PieceType typeAt(ChessBoard board, int square) {
+        int piece = board.pieceAt(square);
+        return piece == ChessBoard.EMPTY ? null : ChessBoard.piece(piece).getPieceType();
+    }
+
+    private static int parseSquare(CharSequence text, int index) {
+        int file = text.charAt(index) - 'a';
+        int rank = text.charAt(index + 1) - '1';
+        if (file < 0 || file > 7 || rank < 0 || rank > 7) {
+            throw malformed(text, "\"" + text.subSequence(index, index + 2) + "\" is not a square");
+        }
+        return rank * 8 + file;
+    }
+
+    /**
+     * @return the piece type for an upper case SAN piece letter, or null
+     */
+    private static ChessPiece.PieceType pieceType(char letter) {
+        return switch (letter) {
+            case 'K' -> ChessPiece.PieceType.KING;
+            case 'Q' -> ChessPiece.PieceType.QUEEN;
+            case 'B' -> ChessPiece.PieceType.BISHOP;
+            case 'N' -> ChessPiece.PieceType.KNIGHT;
+            case 'R' -> ChessPiece.PieceType.ROOK;
+            default -> null;
+        };
+    }
+
+    private static ChessPiece.PieceType promotionType(char letter) {
+        var type = pieceType(letter);
+        return type == ChessPiece.PieceType.KING ? null : type;
+    }
+
+    private static char letter(ChessPiece.PieceType type) {
+        return switch (type) {
+            case KING -> 'K';
+            case QUEEN -> 'Q';
+            case BISHOP -> 'B';
+            case KNIGHT -> 'N';
+            case ROOK -> 'R';
+            case PAWN -> 'P';
+        };
+    }
+
+    private static IllegalArgumentException malformed(CharSequence move, String problem) {
+        return new IllegalArgumentException("Invalid move \"" + move + "\": " + problem);
+    }
+}
@@ -0,0 +1,268 @@
+package chess;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * An opening book: known good continuations for positions that come up early in games,
+ * looked up by {@link ChessGame#positionHash()}.
+ * <p>
+ * The book is a file of fixed-size entries sorted by position hash, mapped into memory
+ * with a {@link MappedByteBuffer} and searched by binary search. Nothing is read into
+ * the heap, so opening a book is instant whatever its size, and the operating system
+ * pages in only the parts that are used. Lookups only read the buffer, so a book can be
+ * shared by any number of threads.
+ * <p>
+ * The file starts with a {@value #HEADER_SIZE}-byte header: the magic number
+ * {@code CHBK}, a format version and the number of entries. Each entry is
+ * {@value #ENTRY_SIZE} bytes: the position hash, the packed move (see
+ * {@link ChessMove#pack()}) and a weight, which is how strongly the move is recommended.
+ * Entries for the same position are next to each other. Use {@link Builder} to write a
+ * book.
+ */
+public final class OpeningBook {
+
+    public static final int VERSION = 1;
+
+    private static final int MAGIC = 0x4348424B;
+    private static final int HEADER_SIZE = 12;
+    private static final int ENTRY_SIZE = 16;
+
+    /**
+     * A move the book recommends
+     *
+     * @param move   the move
+     * @param weight how strongly the move is recommended, relative to the other moves
+     *               for the same position
+     */
+    public record Entry(ChessMove move, int weight) {
+    }
+
+    private final MappedByteBuffer buffer;
+    private final int size;
+
+    private OpeningBook(MappedByteBuffer buffer, int size) {
+        this.buffer = buffer;
+        this.size = size;
+    }
+
+    /**
+     * Maps a book file into memory
+     *
+     * @param path book file written by {@link Builder#write(Path)}
+     * @return the book
+     * @throws IOException if the file cannot be read or is not a book
+     */
+    public static OpeningBook open(Path path) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER_SIZE || length > Integer.MAX_VALUE) {
+                throw new IOException("Not an opening book: " + path);
+            }
+            var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            buffer.order(ByteOrder.BIG_ENDIAN);
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not an opening book: " + path);
+            }
+            if (buffer.getInt(4) != VERSION) {
+                throw new IOException("Unsupported opening book version " + buffer.getInt(4) + ": " + path);
+            }
+            int size = buffer.getInt(8);
+            if (size < 0 || (long) size * ENTRY_SIZE != length - HEADER_SIZE) {
+                throw new IOException("Opening book is truncated: " + path);
+            }
+            return new OpeningBook(buffer, size);
+        }
+    }
+
+    /**
+     * @return the number of entries in the book
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the book moves for a game's position, in the order they were written,
+     * which is heaviest first. Empty if the position is not in the book.
+     */
+    public List<Entry> lookup(ChessGame game) {
+        return lookup(game.positionHash());
+    }
+
+    /**
+     * @param positionHash a {@link ChessGame#positionHash()}
+     * @return the book moves for the position, heaviest first
+     */
+    public List<Entry> lookup(long positionHash) {
+        var entries = new ArrayList<Entry>();
+        for (int i = firstEntry(positionHash); i < size && key(i) == positionHash; i++) {
+            entries.add(new Entry(ChessMove.of(move(i)), weight(i)));
+        }
+        return entries;
+    }
+
+    /**
+     * @return the heaviest legal book move for a game's position, or null if there is none
+     */
+    public ChessMove bestMove(ChessGame game) {
+        long key = game.positionHash();
+        var legal = legalMoves(game);
+        for (int i = firstEntry(key); i < size && key(i) == key; i++) {
+            if (legal.contains(move(i))) {
+                return ChessMove.of(move(i));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Picks a legal book move at random, each with a chance proportional to its weight,
+     * so that computer opponents do not always play the same opening
+     *
+     * @return the chosen move, or null if the position has no legal book move
+     */
+    public ChessMove randomMove(ChessGame game, RandomGenerator random) {
+        long key = game.positionHash();
+        var legal = legalMoves(game);
+        int first = firstEntry(key);
+        long total = 0;
+        for (int i = first; i < size && key(i) == key; i++) {
+            if (legal.contains(move(i))) {
+                total += weight(i);
+            }
+        }
+        if (total == 0) {
+            return null;
+        }
+        long pick = random.nextLong(total);
+        for (int i = first; ; i++) {
+            if (legal.contains(move(i))) {
+                pick -= weight(i);
+                if (pick < 0) {
+                    return ChessMove.of(move(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the index of the first entry whose hash is not less than the given one
+     */
+    private int firstEntry(long positionHash) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (key(middle) < positionHash) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private long key(int index) {
+        return buffer.getLong(HEADER_SIZE + index * ENTRY_SIZE);
+    }
+
+    private int move(int index) {
+        return buffer.getInt(HEADER_SIZE + index * ENTRY_SIZE + 8);
+    }
+
+    private int weight(int index) {
+        return buffer.getInt(HEADER_SIZE + index * ENTRY_SIZE + 12);
+    }
+
+    /**
+     * Book hashes could in principle collide, so moves are only offered if they are legal
+     */
+    private static MoveList legalMoves(ChessGame game) {
+        var moves = new MoveList();
+        game.generateLegalMoves(moves);
+        return moves;
+    }
+
+    /**
+     * Collects weighted moves in memory and writes them out as a sorted book file
+     */
+    public static final class Builder {
+        private final Map<Long, Map<Integer, Integer>> positions = new HashMap<>();
+
+        /**
+         * Adds weight to a move in a position. Adding the same move again adds up the
+         * weights.
+         *
+         * @param game   game in the position the move is played from
+         * @param move   the move
+         * @param weight weight to add; must be positive
+         * @return this builder
+         */
+        public Builder add(ChessGame game, ChessMove move, int weight) {
+            if (weight <= 0) {
+                throw new IllegalArgumentException("Book weights must be positive");
+            }
+            positions.computeIfAbsent(game.positionHash(), key -> new HashMap<>())
+                    .merge(move.pack(), weight, (a, b) -> (int) Math.min((long) a + b, Integer.MAX_VALUE));
+            return this;
+        }
+
+        /**
+         * Adds the first moves of a game from the starting position, each with a weight
+         * of 1, so that adding many games weights each move by how often it was played
+         *
+         * @param moves    the game's moves in order
+         * @param maxPlies how many moves at most to add
+         * @return this builder
+         * @throws InvalidMoveException if one of the moves is illegal
+         */
+        public Builder addGame(List<ChessMove> moves, int maxPlies) throws InvalidMoveException {
+            var game = new ChessGame();
+            for (int i = 0; i < Math.min(moves.size(), maxPlies); i++) {
+                add(game, moves.get(i), 1);
+                game.makeMove(moves.get(i));
+            }
+            return this;
+        }
+
+        /**
+         * Writes the book, sorted by position hash with each position's moves heaviest
+         * first
+         *
+         * @param path file to write
+         * @throws IOException if the file cannot be written
+         */
+        public void write(Path path) throws IOException {
+            var keys = positions.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+            int entries = positions.values().stream().mapToInt(Map::size).sum();
+            var buffer = ByteBuffer.allocate(HEADER_SIZE + entries * ENTRY_SIZE);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(entries);
+            for (long key : keys) {
+                var moves = new ArrayList<>(positions.get(key).entrySet());
+                moves.sort(Map.Entry.<Integer, Integer>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()));
+                for (var move : moves) {
+                    buffer.putLong(key).putInt(move.getKey()).putInt(move.getValue());
+                }
+            }
+            buffer.flip();
+            try (var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+        }
+    }
+}
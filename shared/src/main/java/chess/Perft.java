@@ -0,0 +1,180 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Perft ("performance test") counts the positions reachable in exactly a given number of
+ * moves. The counts for well known positions are published, so perft both checks the
+ * move generator (castling, en passant, promotion and pins all change the totals) and
+ * gives a reproducible throughput number for it.
+ * <p>
+ * Run {@code java -cp shared/target/classes chess.Perft [depth] [parallel]} to print node
+ * counts and nodes per second for every standard position.
+ */
+public final class Perft {
+
+    /**
+     * A position with published perft results
+     *
+     * @param name     name the position is known by
+     * @param fen      the position as a FEN string
+     * @param expected expected node counts, starting at depth 1
+     */
+    public record Position(String name, String fen, long... expected) {
+
+        /**
+         * @return a new game set up in this position
+         */
+        public ChessGame game() {
+            return ChessGame.fromFen(fen);
+        }
+    }
+
+    public static final List<Position> STANDARD_POSITIONS = List.of(
+            new Position("initial", Fen.INITIAL,
+                    20, 400, 8_902, 197_281, 4_865_609),
+            new Position("kiwipete", "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                    48, 2_039, 97_862, 4_085_603),
+            new Position("position 3", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                    14, 191, 2_812, 43_238, 674_624),
+            new Position("position 4", "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                    6, 264, 9_467, 422_333),
+            new Position("position 5", "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+                    44, 1_486, 62_379, 2_103_487),
+            new Position("position 6", "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+                    46, 2_079, 89_890, 3_894_594)
+    );
+
+    /**
+     * Subtrees this shallow are counted on one thread; splitting them further costs more
+     * in task overhead and game copies than it gains
+     */
+    private static final int SEQUENTIAL_DEPTH = 3;
+
+    private Perft() {
+    }
+
+    /**
+     * Counts the leaf positions reachable from a game in exactly {@code depth} moves.
+     * The game is searched in place with {@link ChessGame#applyMove(int)} and
+     * {@link ChessGame#undoMove(long)}, and is left as it was found.
+     */
+    public static long perft(ChessGame game, int depth) {
+        var lists = new MoveList[Math.max(depth, 1)];
+        for (int i = 0; i < lists.length; i++) {
+            lists[i] = new MoveList();
+        }
+        return perft(game, depth, lists);
+    }
+
+    /**
+     * Counts leaf positions separately below each legal move, which is the usual way to
+     * narrow down which move a generator gets wrong
+     *
+     * @return the node count under each root move, in generation order
+     */
+    public static Map<ChessMove, Long> divide(ChessGame game, int depth) {
+        var counts = new LinkedHashMap<ChessMove, Long>();
+        var moves = new MoveList();
+        game.generateLegalMoves(moves);
+        for (int i = 0; i < moves.size(); i++) {
+            long undo = game.applyMove(moves.get(i));
+            counts.put(moves.move(i), depth <= 1 ? 1 : perft(game, depth - 1));
+            game.undoMove(undo);
+        }
+        return counts;
+    }
+
+    /**
+     * Counts the same leaf positions as {@link #perft(ChessGame, int)}, spreading the
+     * subtrees under the first few plies over the common fork-join pool
+     */
+    public static long parallelPerft(ChessGame game, int depth) {
+        return parallelPerft(game, depth, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Counts the same leaf positions as {@link #perft(ChessGame, int)}, spreading the
+     * subtrees under the first few plies over a fork-join pool. Each task works on its
+     * own copy of the game, so the game passed in is never modified.
+     */
+    public static long parallelPerft(ChessGame game, int depth, ForkJoinPool pool) {
+        return pool.invoke(new PerftTask(new ChessGame(game), depth));
+    }
+
+    private static final class PerftTask extends RecursiveTask<Long> {
+        private final ChessGame game;
+        private final int depth;
+
+        PerftTask(ChessGame game, int depth) {
+            this.game = game;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            if (depth <= SEQUENTIAL_DEPTH) {
+                return perft(game, depth);
+            }
+            var moves = new MoveList();
+            game.generateLegalMoves(moves);
+            var tasks = new ArrayList<PerftTask>(moves.size());
+            for (int i = 0; i < moves.size(); i++) {
+                var child = new ChessGame(game);
+                child.applyMove(moves.get(i));
+                tasks.add(new PerftTask(child, depth - 1));
+            }
+            long nodes = 0;
+            for (var task : invokeAll(tasks)) {
+                nodes += task.join();
+            }
+            return nodes;
+        }
+    }
+
+    private static long perft(ChessGame game, int depth, MoveList[] lists) {
+        if (depth == 0) {
+            return 1;
+        }
+        var moves = lists[depth - 1];
+        int count = game.generateLegalMoves(moves);
+        if (depth == 1) {
+            return count;
+        }
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            long undo = game.applyMove(moves.get(i));
+            nodes += perft(game, depth - 1, lists);
+            game.undoMove(undo);
+        }
+        return nodes;
+    }
+
+    public static void main(String[] args) {
+        int maxDepth = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        boolean parallel = args.length > 1 && args[1].equals("parallel");
+        boolean passed = true;
+        for (var position : STANDARD_POSITIONS) {
+            System.out.println(position.name());
+            var game = position.game();
+            for (int depth = 1; depth <= Math.min(maxDepth, position.expected().length); depth++) {
+                long start = System.nanoTime();
+                long nodes = parallel ? parallelPerft(game, depth) : perft(game, depth);
+                long elapsed = Math.max(System.nanoTime() - start, 1);
+                long expected = position.expected()[depth - 1];
+                passed &= nodes == expected;
+                System.out.printf("  depth %d: %,d nodes in %,d ms (%,d nodes/s)%s%n", depth, nodes,
+                        elapsed / 1_000_000, nodes * 1_000_000_000L / elapsed,
+                        nodes == expected ? "" : String.format(" EXPECTED %,d", expected));
+            }
+        }
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,406 @@
+package chess;
+
+import java.time.Duration;
+
+/**
+ * An alpha-beta search that picks moves for computer opponents and hints.
+ * <p>
+ * The search deepens one ply at a time until it runs out of depth, nodes or time, and
+ * answers with the best move of the deepest search that finished. Moves are tried best
+ * first: the move remembered in the {@link TranspositionTable}, then captures by most
+ * valuable victim and least valuable attacker, then promotions, then the two quiet
+ * moves that most recently caused a cutoff at the same ply ("killer moves"). Captures
+ * are searched past the nominal depth until the position is quiet, and checks extend
+ * the search by a ply. Leaves are scored by {@link Evaluation}.
+ * <p>
+ * An engine searches a copy of the game, so the game passed in is never changed. An
+ * engine is not thread-safe, but engines share nothing, so any number of them can
+ * search at once, one per thread.
+ */
+public final class SearchEngine {
+
+    /**
+     * Score of being checkmated at the root; mate in {@code n} plies scores
+     * {@code MATE - n}
+     */
+    public static final int MATE = 30_000;
+
+    private static final int INFINITY = MATE + 1;
+    private static final int MATE_BOUND = MATE - 1_000;
+    private static final int MAX_PLY = 128;
+    private static final int DEFAULT_TABLE_SIZE = 1 << 16;
+    private static final int CHECK_INTERVAL = 1024;
+
+    private static final int TABLE_MOVE_ORDER = 1 << 30;
+    private static final int CAPTURE_ORDER = 1 << 20;
+    private static final int PROMOTION_ORDER = CAPTURE_ORDER - 1_000;
+    private static final int KILLER_ORDER = CAPTURE_ORDER - 2_000;
+
+    /**
+     * How long a search may run. Every limit must be positive; the search stops at
+     * whichever is reached first.
+     *
+     * @param maxDepth deepest iteration to search, in plies
+     * @param maxNodes most positions to visit
+     * @param maxTime  longest time to search
+     */
+    public record Limits(int maxDepth, long maxNodes, Duration maxTime) {
+
+        public Limits {
+            if (maxDepth < 1 || maxDepth >= MAX_PLY || maxNodes < 1 || maxTime.isNegative() || maxTime.isZero()) {
+                throw new IllegalArgumentException("Invalid search limits: " + maxDepth + " plies, "
+                        + maxNodes + " nodes, " + maxTime);
+            }
+        }
+
+        /**
+         * @return limits that only bound the search depth
+         */
+        public static Limits depth(int maxDepth) {
+            return new Limits(maxDepth, Long.MAX_VALUE, Duration.ofDays(1));
+        }
+
+        /**
+         * @return limits that only bound the number of positions visited
+         */
+        public static Limits nodes(long maxNodes) {
+            return new Limits(MAX_PLY - 1, maxNodes, Duration.ofDays(1));
+        }
+
+        /**
+         * @return limits that only bound the search time
+         */
+        public static Limits time(Duration maxTime) {
+            return new Limits(MAX_PLY - 1, Long.MAX_VALUE, maxTime);
+        }
+    }
+
+    /**
+     * The outcome of a search
+     *
+     * @param bestMove best move found, or null if the side to move has no legal move
+     * @param score    score of the best move in centipawns for the side to move; mates
+     *                 score close to {@link #MATE}
+     * @param depth    depth of the deepest completed iteration
+     * @param nodes    positions visited
+     */
+    public record Result(ChessMove bestMove, int score, int depth, long nodes) {
+    }
+
+    private final TranspositionTable table;
+    private final MoveList[] moveLists = new MoveList[MAX_PLY];
+    private final int[][] orderScores = new int[MAX_PLY][];
+    private final int[][] killers = new int[MAX_PLY][2];
+    private final long[] path = new long[MAX_PLY];
+
+    private ChessGame game;
+    private long nodes;
+    private long maxNodes;
+    private long deadline;
+    private boolean stopped;
+    private int rootBestMove;
+
+    public SearchEngine() {
+        this(DEFAULT_TABLE_SIZE);
+    }
+
+    /**
+     * @param tableSize number of transposition table slots; each takes 16 bytes
+     */
+    public SearchEngine(int tableSize) {
+        table = new TranspositionTable(tableSize);
+        for (int ply = 0; ply < MAX_PLY; ply++) {
+            moveLists[ply] = new MoveList();
+            orderScores[ply] = new int[MoveList.DEFAULT_CAPACITY];
+        }
+    }
+
+    /**
+     * Searches for the best move for the team whose turn it is
+     *
+     * @param game   game to search; it is not modified
+     * @param limits when to stop searching
+     * @return the best move found and its score
+     */
+    public Result search(ChessGame game, Limits limits) {
+        this.game = new ChessGame(game);
+        nodes = 0;
+        maxNodes = limits.maxNodes();
+        long now = System.nanoTime();
+        deadline = now + Math.min(limits.maxTime().toNanos(), Long.MAX_VALUE - now);
+        stopped = false;
+        for (var plyKillers : killers) {
+            plyKillers[0] = 0;
+            plyKillers[1] = 0;
+        }
+
+        var rootMoves = new MoveList();
+        if (this.game.generateLegalMoves(rootMoves) == 0) {
+            boolean mated = this.game.isInCheck(this.game.getTeamTurn());
+            return new Result(null, mated ? -MATE : 0, 0, 0);
+        }
+
+        int bestMove = rootMoves.get(0);
+        int bestScore = 0;
+        int completedDepth = 0;
+        for (int depth = 1; depth <= limits.maxDepth(); depth++) {
+            rootBestMove = 0;
+            int score = search(depth, 0, -INFINITY, INFINITY);
+            if (stopped) {
+                break;
+            }
+            bestMove = rootBestMove;
+            bestScore = score;
+            completedDepth = depth;
+            if (Math.abs(score) >= MATE_BOUND && MATE - Math.abs(score) <= depth) {
+                break;
+            }
+        }
+        return new Result(ChessMove.of(bestMove), bestScore, completedDepth, nodes);
+    }
+
+    /**
+     * Forgets every remembered position, for example before starting on unrelated games
+     */
+    public void clear() {
+        table.clear();
+    }
+
+    private int search(int depth, int ply, int alpha, int beta) {
+        if (outOfBudget()) {
+            return 0;
+        }
+        nodes++;
+        long key = game.positionHash();
+        path[ply] = key;
+        if (ply > 0 && (isRepetition(ply) || game.getHalfmoveClock() >= 100)) {
+            return 0;
+        }
+        boolean inCheck = isInCheck();
+        if (inCheck) {
+            depth++;
+        }
+        if (depth <= 0 || ply >= MAX_PLY - 1) {
+            return quiesce(ply, alpha, beta);
+        }
+
+        long entry = table.probe(key);
+        int tableMove = 0;
+        if (entry != 0) {
+            tableMove = TranspositionTable.move(entry);
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int score = fromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+                        || (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        var moves = moveLists[ply];
+        int count = game.generateLegalMoves(moves);
+        if (count == 0) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        int[] order = orderScores(ply, count);
+        for (int i = 0; i < count; i++) {
+            int move = moves.get(i);
+            order[i] = move == tableMove ? TABLE_MOVE_ORDER : orderScore(move, ply);
+        }
+
+        int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        int bestMove = 0;
+        for (int i = 0; i < count; i++) {
+            int move = nextBest(moves, order, i, count);
+            boolean quiet = !isCapture(move) && ChessMove.promotion(move) == null;
+            long undo = game.applyMove(move);
+            int score = -search(depth - 1, ply + 1, -beta, -alpha);
+            game.undoMove(undo);
+            if (stopped) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (ply == 0) {
+                    rootBestMove = move;
+                }
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+            if (alpha >= beta) {
+                if (quiet && killers[ply][0] != move) {
+                    killers[ply][1] = killers[ply][0];
+                    killers[ply][0] = move;
+                }
+                break;
+            }
+        }
+
+        int bound = bestScore >= beta ? TranspositionTable.LOWER_BOUND
+                : bestScore > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER_BOUND;
+        table.store(key, bestMove, toTable(bestScore, ply), depth, bound);
+        return bestScore;
+    }
+
+    /**
+     * Searches captures and promotions only, so that positions are scored once the
+     * exchanges on the board have played out. The side to move may also stop capturing
+     * and take the static evaluation ("stand pat").
+     */
+    private int quiesce(int ply, int alpha, int beta) {
+        if (outOfBudget()) {
+            return 0;
+        }
+        nodes++;
+        int standPat = Evaluation.evaluate(game.getBoard(), game.getTeamTurn());
+        if (standPat >= beta || ply >= MAX_PLY - 1) {
+            return standPat;
+        }
+        if (standPat > alpha) {
+            alpha = standPat;
+        }
+
+        var moves = moveLists[ply];
+        int all = game.generateLegalMoves(moves);
+        int[] order = orderScores(ply, all);
+        int count = 0;
+        for (int i = 0; i < all; i++) {
+            int move = moves.get(i);
+            if (isCapture(move) || ChessMove.promotion(move) != null) {
+                moves.set(count, move);
+                order[count++] = orderScore(move, ply);
+            }
+        }
+
+        for (int i = 0; i < count; i++) {
+            int move = nextBest(moves, order, i, count);
+            long undo = game.applyMove(move);
+            int score = -quiesce(ply + 1, -beta, -alpha);
+            game.undoMove(undo);
+            if (stopped) {
+                return 0;
+            }
+            if (score >= beta) {
+                return score;
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+        }
+        return alpha;
+    }
+
+    private boolean outOfBudget() {
+        if (!stopped && (nodes >= maxNodes
+                || (nodes % CHECK_INTERVAL == 0 && System.nanoTime() - deadline > 0))) {
+            stopped = true;
+        }
+        return stopped;
+    }
+
+    /**
+     * @return true if the current position already occurred on the path from the root.
+     * Only positions with the same side to move since the last capture or pawn move can
+     * match.
+     */
+    private boolean isRepetition(int ply) {
+        int reach = Math.min(game.getHalfmoveClock(), ply);
+        for (int back = 2; back <= reach; back += 2) {
+            if (path[ply - back] == path[ply]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isInCheck() {
+        var color = game.getTeamTurn();
+        long king = game.getBoard().pieces(color, ChessPiece.PieceType.KING);
+        return king != 0 && Attacks.isAttacked(game.getBoard(), Long.numberOfTrailingZeros(king), color.opponent());
+    }
+
+    private boolean isCapture(int move) {
+        int to = ChessMove.to(move);
+        return game.getBoard().pieceAt(to) != ChessBoard.EMPTY
+                || (to == game.enPassantSquare() && isPawn(ChessMove.from(move)));
+    }
+
+    private boolean isPawn(int square) {
+        int piece = game.getBoard().pieceAt(square);
+        return piece != ChessBoard.EMPTY
+                && ChessBoard.piece(piece).getPieceType() == ChessPiece.PieceType.PAWN;
+    }
+
+    /**
+     * @return how early a move should be tried: captures by victim value less attacker
+     * value, then promotions, then killer moves, then everything else
+     */
+    private int orderScore(int move, int ply) {
+        var board = game.getBoard();
+        int to = ChessMove.to(move);
+        int victim = board.pieceAt(to);
+        if (victim != ChessBoard.EMPTY || isCapture(move)) {
+            int victimValue = victim == ChessBoard.EMPTY ? Evaluation.VALUES[ChessPiece.PieceType.PAWN.ordinal()]
+                    : Evaluation.VALUES[ChessBoard.piece(victim).getPieceType().ordinal()];
+            var attacker = ChessBoard.piece(board.pieceAt(ChessMove.from(move))).getPieceType();
+            return CAPTURE_ORDER + victimValue * 16 - Evaluation.VALUES[attacker.ordinal()] / 16;
+        }
+        var promotion = ChessMove.promotion(move);
+        if (promotion != null) {
+            return PROMOTION_ORDER + Evaluation.VALUES[promotion.ordinal()] / 100;
+        }
+        if (move == killers[ply][0]) {
+            return KILLER_ORDER;
+        }
+        if (move == killers[ply][1]) {
+            return KILLER_ORDER - 1;
+        }
+        return 0;
+    }
+
+    private int[] orderScores(int ply, int count) {
+        if (orderScores[ply].length < count) {
+            orderScores[ply] = new int[count];
+        }
+        return orderScores[ply];
+    }
+
+    /**
+     * Swaps the best remaining move into position {@code i}. Picking one move at a time
+     * is cheaper than sorting, since a cutoff usually comes after the first few moves.
+     */
+    private static int nextBest(MoveList moves, int[] order, int i, int count) {
+        int best = i;
+        for (int j = i + 1; j < count; j++) {
+            if (order[j] > order[best]) {
+                best = j;
+            }
+        }
+        if (best != i) {
+            int move = moves.get(best);
+            moves.set(best, moves.get(i));
+            moves.set(i, move);
+            int score = order[best];
+            order[best] = order[i];
+            order[i] = score;
+        }
+        return moves.get(i);
+    }
+
+    /**
+     * Mate scores are stored relative to the position rather than the root, so they
+     * stay correct when the position is reached at a different ply
+     */
+    private static int toTable(int score, int ply) {
+        return score >= MATE_BOUND ? score + ply : score <= -MATE_BOUND ? score - ply : score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        return score >= MATE_BOUND ? score - ply : score <= -MATE_BOUND ? score + ply : score;
+    }
+}
@@ -0,0 +1,412 @@
+package chess;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * An endgame tablebase: the exact outcome, with best play, of every position with one
+ * particular set of pieces, such as king and rook against king ({@code KRvK}).
+ * <p>
+ * A table is generated once by retrograde analysis (see {@link #generate}) and saved
+ * as a file holding one byte per position, which is memory-mapped when opened. Probing
+ * turns the piece squares and side to move into an index and reads that byte, so
+ * answers are immediate. Lookups only read the mapped file, so a table can be shared by
+ * any number of threads.
+ * <p>
+ * Positions are indexed by the side to move, the pair of king squares, and each other
+ * piece's square. Positions that are mirror images or rotations of each other have the
+ * same outcome, so they share an index: without pawns, the board's eight symmetries put
+ * the white king on a1-d1-d4 and, when it is on the long diagonal, the black king on or
+ * below it, which leaves 462 king pairs. Pawns only move one way, so tables with pawns
+ * use the left-right mirror alone, which puts the white king on files a-d and leaves
+ * 1806 king pairs. A table of {@code n} pieces takes {@code 2 * 462 * 64^(n-2)} bytes,
+ * or {@code 2 * 1806 * 64^(n-2)} with pawns. Tables are limited to
+ * {@value #MAX_PIECES} pieces, kings included, which keeps the largest table under
+ * 1 GB. Tables assume that neither side can castle. Only one side may have pawns, since
+ * en passant needs pawns on both sides and a position's byte cannot say whether an en
+ * passant capture is available, so every value in a table is exact.
+ * <p>
+ * The file starts with a {@value #HEADER_SIZE}-byte header: the magic number
+ * {@code CHTB}, a format version, the number of pieces, and the piece index of each
+ * piece (see {@link ChessBoard}) in the table's order. Each position's byte is 0 for a
+ * draw, {@code p} for a win for the side to move with mate in {@code p} plies, or
+ * {@code -(p + 1)} for a loss with mate in {@code p} plies.
+ */
+public final class Tablebase {
+
+    public static final int MAX_PIECES = 5;
+    public static final int VERSION = 2;
+
+    private static final int MAGIC = 0x43485442;
+    private static final int HEADER_SIZE = 12 + MAX_PIECES;
+
+    /**
+     * Square maps for the board's symmetries: bit 0 mirrors the files, bit 1 the ranks,
+     * and bit 2 swaps files and ranks. The first two are the only ones tables with pawns
+     * may use.
+     */
+    private static final int[][] SYMMETRIES = new int[8][64];
+    /**
+     * Number of king pairs, without and with pawns
+     */
+    private static final int[] KING_PAIRS = {462, 1806};
+    /**
+     * King pair number by white king square * 64 + black king square, or -1 for pairs
+     * that are illegal or not in the canonical orientation; without and with pawns
+     */
+    private static final short[][] KING_PAIR_INDEX = new short[2][64 * 64];
+    /**
+     * White king square * 64 + black king square by king pair number
+     */
+    private static final short[][] KING_PAIR_SQUARES = {new short[KING_PAIRS[0]], new short[KING_PAIRS[1]]};
+
+    static {
+        for (int symmetry = 0; symmetry < SYMMETRIES.length; symmetry++) {
+            for (int square = 0; square < 64; square++) {
+                int row = square / 8;
+                int col = square % 8;
+                if ((symmetry & 1) != 0) {
+                    col = 7 - col;
+                }
+                if ((symmetry & 2) != 0) {
+                    row = 7 - row;
+                }
+                SYMMETRIES[symmetry][square] = (symmetry & 4) != 0 ? col * 8 + row : row * 8 + col;
+            }
+        }
+        for (int pawns = 0; pawns < 2; pawns++) {
+            Arrays.fill(KING_PAIR_INDEX[pawns], (short) -1);
+            short pairs = 0;
+            for (int white = 0; white < 64; white++) {
+                for (int black = 0; black < 64; black++) {
+                    if (canonicalKings(white, black, pawns == 1)) {
+                        KING_PAIR_INDEX[pawns][white * 64 + black] = pairs;
+                        KING_PAIR_SQUARES[pawns][pairs++] = (short) (white * 64 + black);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Result of a position for the team to move
+     */
+    public enum Outcome {
+        WIN,
+        DRAW,
+        LOSS
+    }
+
+    /**
+     * The outcome of a position with best play by both sides
+     *
+     * @param outcome result for the team to move
+     * @param plies   moves by both sides until checkmate, or 0 for a draw
+     */
+    public record Probe(Outcome outcome, int plies) {
+    }
+
+    private final int[] pieces;
+    private final ByteBuffer values;
+
+    private Tablebase(int[] pieces, ByteBuffer values) {
+        this.pieces = pieces;
+        this.values = values;
+    }
+
+    /**
+     * Generates a table and writes it to a file. Tables for the positions reached by
+     * captures and promotions are generated along the way, in memory.
+     *
+     * @param material the pieces, white's then black's, separated by {@code v}, such as
+     *                 {@code KQvK} or {@code KPvK}. Each side needs exactly one king,
+     *                 and only one side may have pawns.
+     * @param path     file to write
+     * @throws IllegalArgumentException if the material is malformed or too large
+     * @throws IOException              if the file cannot be written
+     */
+    public static void generate(String material, Path path) throws IOException {
+        int[] pieces = parseMaterial(material);
+        byte[] table = TablebaseGenerator.generate(pieces, new HashMap<>());
+        var header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putInt(pieces.length);
+        for (int piece : pieces) {
+            header.put((byte) piece);
+        }
+        header.position(HEADER_SIZE).flip();
+        try (var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            var body = ByteBuffer.wrap(table);
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            while (body.hasRemaining()) {
+                channel.write(body);
+            }
+        }
+    }
+
+    /**
+     * Maps a table file into memory
+     *
+     * @param path table file written by {@link #generate}
+     * @return the table
+     * @throws IOException if the file cannot be read or is not a table
+     */
+    public static Tablebase open(Path path) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER_SIZE) {
+                throw new IOException("Not a tablebase: " + path);
+            }
+            var header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE).order(ByteOrder.BIG_ENDIAN);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("Not a tablebase: " + path);
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IOException("Unsupported tablebase version " + header.getInt(4) + ": " + path);
+            }
+            int count = header.getInt(8);
+            if (count < 2 || count > MAX_PIECES) {
+                throw new IOException("Tablebase is truncated or corrupt: " + path);
+            }
+            var pieces = new int[count];
+            for (int i = 0; i < count; i++) {
+                pieces[i] = header.get(12 + i);
+            }
+            if (length != HEADER_SIZE + (long) tableSize(pieces)) {
+                throw new IOException("Tablebase is truncated or corrupt: " + path);
+            }
+            var values = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, length - HEADER_SIZE);
+            return new Tablebase(pieces, values);
+        }
+    }
+
+    /**
+     * @return the pieces this table covers, such as {@code KRvK}
+     */
+    public String material() {
+        return materialName(pieces);
+    }
+
+    /**
+     * Looks up the outcome of a game's position
+     *
+     * @return the outcome for the team to move, or null if the game does not have
+     * exactly this table's pieces, a castling or en passant move is available, or the
+     * kings are next to each other
+     */
+    public Probe probe(ChessGame game) {
+        var board = game.getBoard();
+        int enPassant = game.enPassantSquare();
+        var side = game.getTeamTurn();
+        if (game.castlingRights() != 0 || enPassant != ChessGame.NO_SQUARE
+                && (Attacks.pawn(side.opponent(), enPassant) & board.pieces(side, ChessPiece.PieceType.PAWN)) != 0) {
+            return null;
+        }
+        if (Long.bitCount(board.occupied()) != pieces.length) {
+            return null;
+        }
+        var squares = new int[pieces.length];
+        long used = 0;
+        for (int i = 0; i < pieces.length; i++) {
+            long candidates = board.pieces(pieces[i]) & ~used;
+            if (candidates == 0) {
+                return null;
+            }
+            squares[i] = Long.numberOfTrailingZeros(candidates);
+            used |= 1L << squares[i];
+        }
+        int index = index(side, pieces, squares);
+        if (index < 0) {
+            return null;
+        }
+        byte value = values.get(index);
+        if (value == 0) {
+            return new Probe(Outcome.DRAW, 0);
+        }
+        return new Probe(value > 0 ? Outcome.WIN : Outcome.LOSS, plies(value));
+    }
+
+    /**
+     * @return the index of a position in a table whose pieces are on the given squares,
+     * or -1 if the kings are on the same or adjacent squares. Every position the board's
+     * symmetries map onto one another gets the same index.
+     */
+    static int index(ChessGame.TeamColor side, int[] pieces, int[] squares) {
+        int pawns = hasPawn(pieces) ? 1 : 0;
+        int blackKing = blackKing(pieces);
+        int best = -1;
+        for (int symmetry = 0; symmetry < (pawns == 1 ? 2 : SYMMETRIES.length); symmetry++) {
+            int[] map = SYMMETRIES[symmetry];
+            int index = KING_PAIR_INDEX[pawns][map[squares[0]] * 64 + map[squares[blackKing]]];
+            if (index < 0) {
+                continue;
+            }
+            index += side.ordinal() * KING_PAIRS[pawns];
+            for (int i = 1; i < pieces.length; i++) {
+                if (i != blackKing) {
+                    index = index * 64 + map[squares[i]];
+                }
+            }
+            if (best < 0 || index < best) {
+                best = index;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Decodes an index into the squares of a table's pieces
+     *
+     * @return the side to move
+     */
+    static ChessGame.TeamColor squares(int index, int[] pieces, int[] squares) {
+        int pawns = hasPawn(pieces) ? 1 : 0;
+        int blackKing = blackKing(pieces);
+        for (int i = pieces.length - 1; i > 0; i--) {
+            if (i != blackKing) {
+                squares[i] = index & 63;
+                index >>>= 6;
+            }
+        }
+        int kings = KING_PAIR_SQUARES[pawns][index % KING_PAIRS[pawns]];
+        squares[0] = kings / 64;
+        squares[blackKing] = kings % 64;
+        return ChessGame.TeamColor.values()[index / KING_PAIRS[pawns]];
+    }
+
+    /**
+     * @return true if one of the board's symmetries other than the identity leaves every
+     * piece on its square
+     */
+    static boolean symmetric(int[] pieces, int[] squares) {
+        if (hasPawn(pieces)) {
+            return false;
+        }
+        for (int symmetry = 1; symmetry < SYMMETRIES.length; symmetry++) {
+            int i = 0;
+            while (i < pieces.length && SYMMETRIES[symmetry][squares[i]] == squares[i]) {
+                i++;
+            }
+            if (i == pieces.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the number of positions in a table of the given pieces
+     */
+    static int tableSize(int[] pieces) {
+        return 2 * KING_PAIRS[hasPawn(pieces) ? 1 : 0] << (6 * (pieces.length - 2));
+    }
+
+    private static boolean canonicalKings(int white, int black, boolean pawns) {
+        if (white == black || (Attacks.king(white) & (1L << black)) != 0 || white % 8 >= 4) {
+            return false;
+        }
+        if (pawns) {
+            return true;
+        }
+        int row = white / 8;
+        int col = white % 8;
+        return row < col || row == col && black / 8 <= black % 8;
+    }
+
+    private static int blackKing(int[] pieces) {
+        int i = 0;
+        while (pieces[i] < ChessBoard.PIECE_TYPES) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean hasPawn(int[] pieces) {
+        return hasPawn(pieces, ChessGame.TeamColor.WHITE) || hasPawn(pieces, ChessGame.TeamColor.BLACK);
+    }
+
+    static byte win(int plies) {
+        return (byte) plies;
+    }
+
+    static byte loss(int plies) {
+        return (byte) -(plies + 1);
+    }
+
+    /**
+     * @return the plies to mate stored in a win or loss value
+     */
+    static int plies(byte value) {
+        return value > 0 ? value : -value - 1;
+    }
+
+    /**
+     * @return the material name of a list of piece indexes in table order
+     */
+    static String materialName(int[] pieces) {
+        var name = new StringBuilder();
+        for (int i = 0; i < pieces.length; i++) {
+            if (i > 0 && pieces[i] >= ChessBoard.PIECE_TYPES && pieces[i - 1] < ChessBoard.PIECE_TYPES) {
+                name.append('v');
+            }
+            name.append(Character.toUpperCase(ChessBoard.symbol(pieces[i])));
+        }
+        return name.toString();
+    }
+
+    /**
+     * Parses a material name into piece indexes, white's first, each side's sorted by
+     * piece index
+     */
+    static int[] parseMaterial(String material) {
+        int split = material.indexOf('v');
+        if (split < 0 || material.indexOf('v', split + 1) >= 0) {
+            throw new IllegalArgumentException("Material must name white's and black's pieces separated by 'v': "
+                    + material);
+        }
+        int[] white = parseSide(material, material.substring(0, split), ChessGame.TeamColor.WHITE);
+        int[] black = parseSide(material, material.substring(split + 1), ChessGame.TeamColor.BLACK);
+        if (white.length + black.length > MAX_PIECES) {
+            throw new IllegalArgumentException("Tablebases are limited to " + MAX_PIECES + " pieces: " + material);
+        }
+        if (hasPawn(white, ChessGame.TeamColor.WHITE) && hasPawn(black, ChessGame.TeamColor.BLACK)) {
+            throw new IllegalArgumentException("Only one side may have pawns, since tables do not track en passant: "
+                    + material);
+        }
+        int[] pieces = Arrays.copyOf(white, white.length + black.length);
+        System.arraycopy(black, 0, pieces, white.length, black.length);
+        return pieces;
+    }
+
+    private static boolean hasPawn(int[] pieces, ChessGame.TeamColor color) {
+        return Arrays.binarySearch(pieces, ChessBoard.pieceIndex(color, ChessPiece.PieceType.PAWN)) >= 0;
+    }
+
+    private static int[] parseSide(String material, String side, ChessGame.TeamColor color) {
+        int[] pieces = new int[side.length()];
+        int kings = 0;
+        for (int i = 0; i < side.length(); i++) {
+            int piece = Fen.pieceIndex(side.charAt(i));
+            if (piece == ChessBoard.EMPTY || !Character.isUpperCase(side.charAt(i))) {
+                throw new IllegalArgumentException("Unknown piece '" + side.charAt(i) + "' in " + material);
+            }
+            pieces[i] = ChessBoard.pieceIndex(color, ChessBoard.piece(piece).getPieceType());
+            if (ChessBoard.piece(piece).getPieceType() == ChessPiece.PieceType.KING) {
+                kings++;
+            }
+        }
+        if (kings != 1) {
+            throw new IllegalArgumentException("Each side needs exactly one king: " + material);
+        }
+        Arrays.sort(pieces);
+        return pieces;
+    }
+}
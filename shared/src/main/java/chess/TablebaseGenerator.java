@@ -0,0 +1,383 @@
+package chess;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds a {@link Tablebase} by retrograde analysis.
+ * <p>
+ * Every legal position first gets its legal moves counted. Moves that capture or
+ * promote leave the table; their outcome is read from the smaller table they lead to,
+ * which is generated first. Then the analysis works outward from the checkmates one ply
+ * at a time. In round {@code r}, every position decided with mate in {@code r} plies is
+ * visited, and the moves that could have led to it are played backwards ("unmoves"):
+ * <ul>
+ *     <li>a predecessor that can move into a lost position is won, with mate in
+ *     {@code r + 1} plies</li>
+ *     <li>a predecessor that can move into a won position has one fewer move left to
+ *     try; once every move is known to lose, it is lost</li>
+ * </ul>
+ * Positions still undecided when no round finds anything new are draws. Since results
+ * are found in order of distance, every win is the fastest and every loss the slowest.
+ * <p>
+ * A table index stands for every mirror image and rotation of its position (see
+ * {@link Tablebase}), so unmoves are played on the index's own position and each
+ * predecessor is looked up by its index. A position that some symmetry leaves unchanged
+ * is reached by a different number of unmoves than it has moves, so counters next to
+ * such a position are recounted from the predecessor's own moves instead.
+ */
+final class TablebaseGenerator {
+
+    private static final int MAX_PLIES = Byte.MAX_VALUE - 1;
+
+    private final int[] pieces;
+    private final Map<String, byte[]> tables;
+    /**
+     * Tables reached by captures and promotions, by captured piece, promotion type and
+     * the team that moved
+     */
+    private final Map<Integer, byte[]> exitTables = new HashMap<>();
+
+    private final byte[] values;
+    /**
+     * Moves that stay in the table and are not yet known to lose, as unsigned bytes
+     */
+    private final byte[] counters;
+    /**
+     * The slowest loss among moves that leave the table, in plies
+     */
+    private final byte[] exitLoss;
+    /**
+     * The fastest win among moves that leave the table, in plies, or 0 for none
+     */
+    private final byte[] exitWin;
+    /**
+     * Positions with a move that leaves the table without losing, so they can never be lost
+     */
+    private final long[] cannotLose;
+
+    private final ChessBoard board = new ChessBoard();
+    private final MoveList moves = new MoveList();
+    private final int[] squares;
+    private final int[] childSquares;
+    private ChessGame.TeamColor side;
+
+    private final ChessBoard predecessorBoard = new ChessBoard();
+    private final MoveList predecessorMoves = new MoveList();
+    private final int[] predecessorSquares;
+    /**
+     * Predecessors already recounted while unmoving the current position
+     */
+    private int[] recounted = new int[16];
+
+    private int maxPlies;
+
+    private TablebaseGenerator(int[] pieces, Map<String, byte[]> tables) {
+        this.pieces = pieces;
+        this.tables = tables;
+        int size = Tablebase.tableSize(pieces);
+        values = new byte[size];
+        counters = new byte[size];
+        exitLoss = new byte[size];
+        exitWin = new byte[size];
+        cannotLose = new long[(size + 63) / 64];
+        squares = new int[pieces.length];
+        childSquares = new int[pieces.length];
+        predecessorSquares = new int[pieces.length];
+    }
+
+    /**
+     * Generates the table for a set of pieces, reusing and adding to already generated
+     * tables
+     *
+     * @param pieces piece indexes in table order
+     * @param tables generated tables by material name
+     * @return the table's values
+     */
+    static byte[] generate(int[] pieces, Map<String, byte[]> tables) {
+        String name = Tablebase.materialName(pieces);
+        byte[] table = tables.get(name);
+        if (table == null) {
+            var generator = new TablebaseGenerator(pieces, tables);
+            generator.countMoves();
+            generator.propagate();
+            table = generator.values;
+            tables.put(name, table);
+        }
+        return table;
+    }
+
+    private void countMoves() {
+        for (int index = 0; index < values.length; index++) {
+            if (!setUp(index)) {
+                continue;
+            }
+            moves.clear();
+            LegalMoveGenerator.legalMoves(board, side, 0, ChessGame.NO_SQUARE, moves);
+            if (moves.isEmpty()) {
+                if (inCheck(side)) {
+                    values[index] = Tablebase.loss(0);
+                } else {
+                    setCannotLose(index);
+                }
+                continue;
+            }
+            int inTable = 0;
+            for (int i = 0; i < moves.size(); i++) {
+                int move = moves.get(i);
+                if (board.pieceAt(ChessMove.to(move)) == ChessBoard.EMPTY && ChessMove.promotion(move) == null) {
+                    inTable++;
+                    continue;
+                }
+                byte child = exitValue(move);
+                if (child == 0) {
+                    setCannotLose(index);
+                } else if (child < 0) {
+                    setCannotLose(index);
+                    int plies = Tablebase.plies(child) + 1;
+                    if (exitWin[index] == 0 || plies < exitWin[index]) {
+                        exitWin[index] = (byte) plies;
+                        maxPlies = Math.max(maxPlies, plies);
+                    }
+                } else {
+                    exitLoss[index] = (byte) Math.max(exitLoss[index], Tablebase.plies(child) + 1);
+                }
+            }
+            counters[index] = (byte) inTable;
+            if (inTable == 0 && !cannotLose(index)) {
+                values[index] = Tablebase.loss(exitLoss[index]);
+                maxPlies = Math.max(maxPlies, exitLoss[index]);
+            }
+        }
+    }
+
+    private void propagate() {
+        for (int round = 0; round <= maxPlies; round++) {
+            if (round > MAX_PLIES) {
+                throw new IllegalStateException("Mate is more than " + MAX_PLIES + " plies away in "
+                        + Tablebase.materialName(pieces));
+            }
+            for (int index = 0; index < values.length; index++) {
+                byte value = values[index];
+                if (value == 0 && exitWin[index] == round && round > 0) {
+                    value = Tablebase.win(round);
+                    values[index] = value;
+                }
+                if (value != 0 && Tablebase.plies(value) == round) {
+                    setUp(index);
+                    unmove(round, value < 0);
+                }
+            }
+        }
+    }
+
+    /**
+     * Visits every position that could have moved into the current one without a
+     * capture or promotion, and updates it now that the current position is decided
+     */
+    private void unmove(int round, boolean lost) {
+        var mover = side.opponent();
+        long occupied = board.occupied();
+        int current = Tablebase.index(side, pieces, squares);
+        boolean symmetric = Tablebase.symmetric(pieces, squares);
+        int recountedCount = 0;
+        for (int i = 0; i < pieces.length; i++) {
+            var piece = ChessBoard.piece(pieces[i]);
+            if (piece.getTeamColor() != mover) {
+                continue;
+            }
+            int to = squares[i];
+            long origins = piece.getPieceType() == ChessPiece.PieceType.PAWN
+                    ? pawnOrigins(mover, to, occupied)
+                    : Attacks.piece(piece.getPieceType(), to, occupied) & ~occupied;
+            while (origins != 0) {
+                int from = Long.numberOfTrailingZeros(origins);
+                origins &= origins - 1;
+                board.remove(to);
+                board.put(from, pieces[i]);
+                boolean legal = !inCheck(side);
+                board.remove(from);
+                board.put(to, pieces[i]);
+                if (!legal) {
+                    continue;
+                }
+                squares[i] = from;
+                int predecessor = Tablebase.index(mover, pieces, squares);
+                boolean recount = symmetric || Tablebase.symmetric(pieces, squares);
+                squares[i] = to;
+                if (values[predecessor] != 0) {
+                    continue;
+                }
+                if (lost) {
+                    values[predecessor] = Tablebase.win(round + 1);
+                    maxPlies = Math.max(maxPlies, round + 1);
+                } else {
+                    int played = 1;
+                    if (recount) {
+                        if (contains(recounted, recountedCount, predecessor)) {
+                            continue;
+                        }
+                        if (recountedCount == recounted.length) {
+                            recounted = Arrays.copyOf(recounted, recountedCount * 2);
+                        }
+                        recounted[recountedCount++] = predecessor;
+                        played = movesInto(predecessor, current);
+                    }
+                    int remaining = (counters[predecessor] & 0xFF) - played;
+                    counters[predecessor] = (byte) remaining;
+                    if (remaining == 0 && !cannotLose(predecessor)) {
+                        int plies = Math.max(round + 1, exitLoss[predecessor]);
+                        values[predecessor] = Tablebase.loss(plies);
+                        maxPlies = Math.max(maxPlies, plies);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return how many of a position's moves that stay in the table lead to a position
+     * with the index {@code child}
+     */
+    private int movesInto(int index, int child) {
+        var color = Tablebase.squares(index, pieces, predecessorSquares);
+        predecessorBoard.clear();
+        for (int i = 0; i < pieces.length; i++) {
+            predecessorBoard.put(predecessorSquares[i], pieces[i]);
+        }
+        predecessorMoves.clear();
+        LegalMoveGenerator.legalMoves(predecessorBoard, color, 0, ChessGame.NO_SQUARE, predecessorMoves);
+        int count = 0;
+        for (int i = 0; i < predecessorMoves.size(); i++) {
+            int move = predecessorMoves.get(i);
+            int from = ChessMove.from(move);
+            int to = ChessMove.to(move);
+            if (predecessorBoard.pieceAt(to) != ChessBoard.EMPTY || ChessMove.promotion(move) != null) {
+                continue;
+            }
+            int moved = 0;
+            while (predecessorSquares[moved] != from) {
+                moved++;
+            }
+            predecessorSquares[moved] = to;
+            if (Tablebase.index(color.opponent(), pieces, predecessorSquares) == child) {
+                count++;
+            }
+            predecessorSquares[moved] = from;
+        }
+        return count;
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the squares a pawn on {@code to} could have come from with a non-capturing move
+     */
+    private static long pawnOrigins(ChessGame.TeamColor color, int to, long occupied) {
+        int back = color == ChessGame.TeamColor.WHITE ? -8 : 8;
+        int doubleRow = color == ChessGame.TeamColor.WHITE ? 3 : 4;
+        int single = to + back;
+        if (single < 8 || single >= 56 || (occupied & (1L << single)) != 0) {
+            return 0;
+        }
+        long origins = 1L << single;
+        if (to / 8 == doubleRow && (occupied & (1L << (single + back))) == 0) {
+            origins |= 1L << (single + back);
+        }
+        return origins;
+    }
+
+    /**
+     * Looks up the result of a capture or promotion in the table it leads to
+     *
+     * @return the value of the resulting position, for the team that moves next there
+     */
+    private byte exitValue(int move) {
+        int from = ChessMove.from(move);
+        int to = ChessMove.to(move);
+        var promotion = ChessMove.promotion(move);
+        int captured = -1;
+        for (int i = 0; i < pieces.length; i++) {
+            if (squares[i] == to) {
+                captured = i;
+            }
+        }
+
+        // Lay out the remaining pieces, then sort them into the child table's order
+        int count = 0;
+        int[] childPieces = new int[pieces.length - (captured < 0 ? 0 : 1)];
+        for (int i = 0; i < pieces.length; i++) {
+            if (i == captured) {
+                continue;
+            }
+            int piece = pieces[i];
+            int square = squares[i];
+            if (square == from) {
+                square = to;
+                if (promotion != null) {
+                    piece = ChessBoard.pieceIndex(side, promotion);
+                }
+            }
+            int j = count++;
+            while (j > 0 && childPieces[j - 1] > piece) {
+                childPieces[j] = childPieces[j - 1];
+                childSquares[j] = childSquares[j - 1];
+                j--;
+            }
+            childPieces[j] = piece;
+            childSquares[j] = square;
+        }
+
+        int key = ((captured + 1) * 8 + (promotion == null ? 0 : promotion.ordinal() + 1)) * 2 + side.ordinal();
+        byte[] table = exitTables.computeIfAbsent(key, k -> generate(childPieces, tables));
+        return table[Tablebase.index(side.opponent(), childPieces, childSquares)];
+    }
+
+    /**
+     * Decodes a position into {@link #squares}, {@link #side} and {@link #board}
+     *
+     * @return true if the position is legal: no two pieces on a square, no pawns on the
+     * first or last rank, and the team that just moved not in check. Indexes that do not
+     * hold their position's symmetric orientation are never looked up, so they count as
+     * illegal too.
+     */
+    private boolean setUp(int index) {
+        side = Tablebase.squares(index, pieces, squares);
+        if (Tablebase.index(side, pieces, squares) != index) {
+            return false;
+        }
+        board.clear();
+        for (int i = 0; i < pieces.length; i++) {
+            if (board.pieceAt(squares[i]) != ChessBoard.EMPTY) {
+                return false;
+            }
+            if (ChessBoard.piece(pieces[i]).getPieceType() == ChessPiece.PieceType.PAWN
+                    && (squares[i] < 8 || squares[i] >= 56)) {
+                return false;
+            }
+            board.put(squares[i], pieces[i]);
+        }
+        return !inCheck(side.opponent());
+    }
+
+    private boolean inCheck(ChessGame.TeamColor color) {
+        long king = board.pieces(color, ChessPiece.PieceType.KING);
+        return Attacks.isAttacked(board, Long.numberOfTrailingZeros(king), color.opponent());
+    }
+
+    private boolean cannotLose(int index) {
+        return (cannotLose[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private void setCannotLose(int index) {
+        cannotLose[index >>> 6] |= 1L << index;
+    }
+}
@@ -0,0 +1,80 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size table of search results keyed by {@link ChessGame#positionHash()}, so a
+ * position reached again through a different move order is not searched twice.
+ * <p>
+ * Each slot is two parallel longs: the full key, and the entry packed as the best move,
+ * score, depth and bound type. A slot is replaced when the new result is for another
+ * position or was searched at least as deep. The table is not thread-safe; every
+ * {@link SearchEngine} owns its own.
+ */
+final class TranspositionTable {
+
+    static final int EXACT = 1;
+    static final int LOWER_BOUND = 2;
+    static final int UPPER_BOUND = 3;
+
+    private static final int MOVE_BITS = 15;
+    private static final int SCORE_SHIFT = MOVE_BITS;
+    private static final int SCORE_OFFSET = 1 << 15;
+    private static final int DEPTH_SHIFT = SCORE_SHIFT + 16;
+    private static final int BOUND_SHIFT = DEPTH_SHIFT + 8;
+
+    private final long[] keys;
+    private final long[] entries;
+    private final int mask;
+
+    /**
+     * @param size number of slots, rounded down to a power of two
+     */
+    TranspositionTable(int size) {
+        int slots = Integer.highestOneBit(Math.max(size, 1));
+        keys = new long[slots];
+        entries = new long[slots];
+        mask = slots - 1;
+    }
+
+    /**
+     * @return the packed entry for a position, or 0 if the table does not hold one
+     */
+    long probe(long key) {
+        int slot = (int) key & mask;
+        return keys[slot] == key ? entries[slot] : 0;
+    }
+
+    void store(long key, int move, int score, int depth, int bound) {
+        int slot = (int) key & mask;
+        if (keys[slot] == key && entries[slot] != 0 && depth(entries[slot]) > depth) {
+            return;
+        }
+        keys[slot] = key;
+        entries[slot] = move
+                | ((long) (score + SCORE_OFFSET) << SCORE_SHIFT)
+                | ((long) depth << DEPTH_SHIFT)
+                | ((long) bound << BOUND_SHIFT);
+    }
+
+    void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(entries, 0L);
+    }
+
+    static int move(long entry) {
+        return (int) (entry & ((1 << MOVE_BITS) - 1));
+    }
+
+    static int score(long entry) {
+        return (int) ((entry >>> SCORE_SHIFT) & 0xFFFF) - SCORE_OFFSET;
+    }
+
+    static int depth(long entry) {
+        return (int) ((entry >>> DEPTH_SHIFT) & 0xFF);
+    }
+
+    static int bound(long entry) {
+        return (int) ((entry >>> BOUND_SHIFT) & 0x3);
+    }
+}
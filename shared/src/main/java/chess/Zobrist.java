@@ -0,0 +1,73 @@
+package chess;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random keys for Zobrist hashing. A position's hash is the XOR of the key for every
+ * piece on its square, plus keys for the side to move, the castling rights and the en
+ * passant file. Making a move only has to XOR out the keys that changed and XOR in the
+ * new ones.
+ * <p>
+ * The keys come from a fixed seed so a position hashes the same way in every process,
+ * which lets hashes be stored and compared across server restarts.
+ */
+final class Zobrist {
+
+    private static final long SEED = 0x240C4E55L;
+
+    private static final long[] PIECE_SQUARE = new long[ChessBoard.PIECE_KINDS * 64];
+    private static final long[] CASTLING = new long[16];
+    private static final long[] EN_PASSANT_FILE = new long[8];
+    private static final long BLACK_TO_MOVE;
+    private static final long WAITING_TEAM;
+
+    static {
+        var random = new SplittableRandom(SEED);
+        for (int i = 0; i < PIECE_SQUARE.length; i++) {
+            PIECE_SQUARE[i] = random.nextLong();
+        }
+        // No castling rights hashes to zero so it does not need a special case
+        for (int i = 1; i < CASTLING.length; i++) {
+            CASTLING[i] = random.nextLong();
+        }
+        for (int i = 0; i < EN_PASSANT_FILE.length; i++) {
+            EN_PASSANT_FILE[i] = random.nextLong();
+        }
+        BLACK_TO_MOVE = random.nextLong();
+        WAITING_TEAM = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * @param piece  piece index, see {@link ChessBoard#pieceIndex}
+     * @param square square index, 0 through 63
+     */
+    static long piece(int piece, int square) {
+        return PIECE_SQUARE[piece * 64 + square];
+    }
+
+    /**
+     * @param castlingRights castling flags as defined in {@link ChessGame}
+     */
+    static long castling(int castlingRights) {
+        return CASTLING[castlingRights];
+    }
+
+    static long enPassant(int square) {
+        return EN_PASSANT_FILE[square % 8];
+    }
+
+    static long sideToMove(ChessGame.TeamColor color) {
+        return color == ChessGame.TeamColor.BLACK ? BLACK_TO_MOVE : 0L;
+    }
+
+    /**
+     * Distinguishes a question about the team that is not on move (such as the moves
+     * it would have) from the same question about the team that is
+     */
+    static long waitingTeam() {
+        return WAITING_TEAM;
+    }
+}
@@ -0,0 +1,85 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+
+public class AttackMapTests {
+
+    @Test
+    @DisplayName("Attack Maps Follow Moves")
+    public void followMoves() throws InvalidMoveException {
+        var random = new SplittableRandom(240);
+        for (int gameNumber = 0; gameNumber < 20; gameNumber++) {
+            var game = new ChessGame();
+            for (int ply = 0; ply < 60; ply++) {
+                var moves = new ArrayList<ChessMove>();
+                for (int i = 0; i < 64; i++) {
+                    var position = ChessPosition.ofSquare(i);
+                    var piece = game.getBoard().getPiece(position);
+                    if (piece != null && piece.getTeamColor() == game.getTeamTurn()) {
+                        moves.addAll(game.validMoves(position));
+                    }
+                }
+                if (moves.isEmpty()) {
+                    break;
+                }
+                game.makeMove(moves.get(random.nextInt(moves.size())));
+                assertMapsMatch(game);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Attack Maps Follow Board Edits")
+    public void followBoardEdits() {
+        var game = new ChessGame();
+        Assertions.assertFalse(game.isInCheck(ChessGame.TeamColor.WHITE));
+
+        game.getBoard().addPiece(ChessPosition.of(2, 4), null);
+        game.getBoard().addPiece(ChessPosition.of(5, 1),
+                new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
+        Assertions.assertTrue(game.isInCheck(ChessGame.TeamColor.WHITE));
+        assertMapsMatch(game);
+
+        var board = new ChessBoard();
+        board.addPiece(ChessPosition.of(1, 1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        board.addPiece(ChessPosition.of(8, 8), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        game.setBoard(board);
+        Assertions.assertFalse(game.isInCheck(ChessGame.TeamColor.WHITE));
+        assertMapsMatch(game);
+    }
+
+    @Test
+    @DisplayName("Attack Maps On Crowded Boards")
+    public void crowdedBoards() {
+        var random = new SplittableRandom(22);
+        for (int boardNumber = 0; boardNumber < 500; boardNumber++) {
+            var board = new ChessBoard();
+            for (int square = 0; square < 64; square++) {
+                if (random.nextInt(3) == 0) {
+                    board.put(square, random.nextInt(ChessBoard.PIECE_KINDS));
+                }
+            }
+            var game = new ChessGame();
+            game.setBoard(board);
+            assertMapsMatch(game);
+        }
+    }
+
+    private static void assertMapsMatch(ChessGame game) {
+        var board = game.getBoard();
+        for (var color : ChessGame.TeamColor.values()) {
+            long expected = 0;
+            for (int square = 0; square < 64; square++) {
+                if (Attacks.isAttacked(board, square, color)) {
+                    expected |= 1L << square;
+                }
+            }
+            Assertions.assertEquals(expected, game.attackedSquares(color), color + " attacks on\n" + board);
+        }
+    }
+}
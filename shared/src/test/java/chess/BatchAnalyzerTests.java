@@ -0,0 +1,49 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+public class BatchAnalyzerTests {
+
+    @Test
+    @DisplayName("Batch Results Match Single Analysis")
+    public void matchesSingle() {
+        var random = new SplittableRandom(16);
+        var games = new ArrayList<ChessGame>();
+        var expected = new ArrayList<BatchAnalyzer.Result>();
+        var moves = new MoveList();
+        var game = new ChessGame();
+        for (int i = 0; i < 500; i++) {
+            if (game.generateLegalMoves(moves) == 0 || game.getFullmoveNumber() > 60) {
+                game = new ChessGame();
+                game.generateLegalMoves(moves);
+            }
+            game.applyMove(moves.get(random.nextInt(moves.size())));
+            var copy = new ChessGame(game);
+            games.add(copy);
+            var result = BatchAnalyzer.analyze(new ChessGame(game));
+            Assertions.assertEquals(new ChessGame(game).status(), result.status(), game.toFen());
+            expected.add(result);
+        }
+
+        var pool = new ForkJoinPool(4);
+        try {
+            Assertions.assertEquals(expected, BatchAnalyzer.analyzeAll(games, pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Analysis Of A Checkmate")
+    public void checkmate() {
+        var game = ChessGame.fromFen("rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3");
+        Assertions.assertEquals(new BatchAnalyzer.Result(0, ChessGame.GameStatus.CHECKMATE, true),
+                BatchAnalyzer.analyze(game));
+    }
+}
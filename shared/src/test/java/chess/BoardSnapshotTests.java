@@ -0,0 +1,51 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class BoardSnapshotTests {
+
+    @Test
+    @DisplayName("Snapshot Does Not Change With The Board")
+    public void unchangedByBoard() throws InvalidMoveException {
+        var game = new ChessGame();
+        var before = game.getBoard().snapshot();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+
+        Assertions.assertEquals(new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN),
+                before.getPiece(new ChessPosition(2, 5)));
+        Assertions.assertNull(before.getPiece(new ChessPosition(4, 5)));
+        Assertions.assertEquals(new ChessGame().getBoard(), before.toBoard());
+        Assertions.assertFalse(before.matches(game.getBoard()));
+        Assertions.assertTrue(game.getBoard().snapshot().matches(game.getBoard()));
+    }
+
+    @Test
+    @DisplayName("Snapshot Is Reused Until A Piece Moves")
+    public void reused() {
+        var board = new ChessBoard();
+        board.resetBoard();
+        var first = board.snapshot();
+        Assertions.assertSame(first, board.snapshot());
+
+        board.addPiece(new ChessPosition(4, 4), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
+        var second = board.snapshot();
+        Assertions.assertNotSame(first, second);
+        Assertions.assertNotEquals(first, second);
+
+        board.addPiece(new ChessPosition(4, 4), null);
+        Assertions.assertEquals(first, board.snapshot());
+        Assertions.assertEquals(first.positionHash(), board.positionHash());
+    }
+
+    @Test
+    @DisplayName("Snapshot Round Trip")
+    public void roundTrip() {
+        var board = ChessBoard.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R");
+        var snapshot = board.snapshot();
+        Assertions.assertEquals(board, snapshot.toBoard());
+        Assertions.assertEquals(board.positionHash(), snapshot.toBoard().positionHash());
+        Assertions.assertEquals(board.toFen(), snapshot.toFen());
+    }
+}
@@ -0,0 +1,127 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+public class DrawTests {
+
+    @Test
+    @DisplayName("Threefold Repetition")
+    public void threefoldRepetition() throws InvalidMoveException {
+        var game = new ChessGame();
+        Assertions.assertEquals(1, game.getRepetitionCount());
+
+        shuffleKnights(game);
+        Assertions.assertEquals(2, game.getRepetitionCount());
+        Assertions.assertFalse(game.isDraw());
+        Assertions.assertEquals(ChessGame.GameStatus.ONGOING, game.status());
+
+        shuffleKnights(game);
+        Assertions.assertEquals(3, game.getRepetitionCount());
+        Assertions.assertTrue(game.isThreefoldRepetition());
+        Assertions.assertEquals(ChessGame.GameStatus.DRAW, game.status());
+    }
+
+    @Test
+    @DisplayName("Irreversible Move Ends Repetition")
+    public void irreversibleMove() throws InvalidMoveException {
+        var game = new ChessGame();
+        shuffleKnights(game);
+        makeMove(game, 2, 5, 4, 5);
+        makeMove(game, 7, 5, 5, 5);
+        shuffleKnights(game);
+        Assertions.assertEquals(2, game.getRepetitionCount());
+        Assertions.assertFalse(game.isThreefoldRepetition());
+    }
+
+    @Test
+    @DisplayName("Side To Move Matters For Repetition")
+    public void sideToMove() throws InvalidMoveException {
+        var game = new ChessGame();
+        makeMove(game, 1, 7, 3, 6);
+        makeMove(game, 8, 7, 6, 6);
+        makeMove(game, 3, 6, 1, 7);
+        makeMove(game, 6, 6, 8, 7);
+        makeMove(game, 1, 7, 3, 6);
+        Assertions.assertEquals(2, game.getRepetitionCount());
+        game.setTeamTurn(ChessGame.TeamColor.WHITE);
+        Assertions.assertEquals(1, game.getRepetitionCount());
+    }
+
+    @Test
+    @DisplayName("Fifty-Move Rule")
+    public void fiftyMoveRule() {
+        Assertions.assertFalse(ChessGame.fromFen("4k3/8/8/8/8/8/8/R3K3 w - - 99 80").isFiftyMoveDraw());
+        var game = ChessGame.fromFen("4k3/8/8/8/8/8/8/R3K3 w - - 100 80");
+        Assertions.assertTrue(game.isFiftyMoveDraw());
+        Assertions.assertEquals(ChessGame.GameStatus.DRAW, game.status());
+
+        var mate = ChessGame.fromFen("R3k3/8/4K3/8/8/8/8/8 b - - 100 80");
+        Assertions.assertEquals(ChessGame.GameStatus.CHECKMATE, mate.status());
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "4k3/8/8/8/8/8/8/4K3 w - - 0 1, true",
+            "4k3/8/8/8/8/8/8/2B1K3 w - - 0 1, true",
+            "4k3/8/8/8/8/8/8/1N2K3 w - - 0 1, true",
+            "2b1k3/8/8/8/8/8/8/3BK3 w - - 0 1, true",
+            "3bk3/8/8/8/8/8/8/3BK3 w - - 0 1, false",
+            "4k3/8/8/8/8/8/8/1NB1K3 w - - 0 1, false",
+            "1n2k3/8/8/8/8/8/8/1N2K3 w - - 0 1, false",
+            "4k3/8/8/8/8/8/8/R3K3 w - - 0 1, false",
+            "4k3/4p3/8/8/8/8/8/4K3 w - - 0 1, false",
+    })
+    @DisplayName("Insufficient Material")
+    public void insufficientMaterial(String fen, boolean expected) {
+        Assertions.assertEquals(expected, ChessGame.fromFen(fen).isInsufficientMaterial());
+    }
+
+    @Test
+    @DisplayName("Repetition Survives Serialization")
+    public void serialization() throws InvalidMoveException {
+        var gson = new Gson();
+        var game = new ChessGame();
+        makeMove(game, 2, 5, 4, 5);
+        makeMove(game, 7, 5, 5, 5);
+        for (int i = 0; i < 10; i++) {
+            makeMove(game, 1, 7, 3, 6);
+            makeMove(game, 8, 7, 6, 6);
+            makeMove(game, 3, 6, 5, 7);
+            makeMove(game, 6, 6, 4, 7);
+            makeMove(game, 5, 7, 3, 6);
+            makeMove(game, 4, 7, 6, 6);
+            makeMove(game, 3, 6, 1, 7);
+            makeMove(game, 6, 6, 8, 7);
+        }
+        // A capture or pawn move forgets every earlier position
+        makeMove(game, 2, 4, 3, 4);
+        makeMove(game, 7, 4, 6, 4);
+        shuffleKnights(game);
+
+        var json = gson.toJson(game);
+        Assertions.assertTrue(json.length() < 1000, "serialized game is " + json.length() + " characters");
+
+        var restored = gson.fromJson(json, ChessGame.class);
+        Assertions.assertEquals(game, restored);
+        Assertions.assertEquals(2, restored.getRepetitionCount());
+        shuffleKnights(restored);
+        Assertions.assertTrue(restored.isThreefoldRepetition());
+    }
+
+    private static void shuffleKnights(ChessGame game) throws InvalidMoveException {
+        makeMove(game, 1, 7, 3, 6);
+        makeMove(game, 8, 7, 6, 6);
+        makeMove(game, 3, 6, 1, 7);
+        makeMove(game, 6, 6, 8, 7);
+    }
+
+    private static void makeMove(ChessGame game, int fromRow, int fromCol, int toRow, int toCol)
+            throws InvalidMoveException {
+        game.makeMove(new ChessMove(new ChessPosition(fromRow, fromCol), new ChessPosition(toRow, toCol), null));
+    }
+}
@@ -0,0 +1,100 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class FenTests {
+
+    @Test
+    @DisplayName("Initial Position")
+    public void initialPosition() {
+        var game = ChessGame.fromFen("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1");
+        Assertions.assertEquals(new ChessGame(), game);
+        Assertions.assertEquals("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1", new ChessGame().toFen());
+    }
+
+    @Test
+    @DisplayName("Board Only")
+    public void boardOnly() {
+        var board = new ChessBoard();
+        board.resetBoard();
+        Assertions.assertEquals("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR", board.toFen());
+        Assertions.assertEquals(board, ChessBoard.fromFen("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR"));
+    }
+
+    @Test
+    @DisplayName("Moves Update The FEN")
+    public void movesUpdateFen() throws InvalidMoveException {
+        var game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        Assertions.assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1", game.toFen());
+        game.makeMove(new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null));
+        Assertions.assertEquals("rnbqkb1r/pppppppp/5n2/8/4P3/8/PPPP1PPP/RNBQKBNR w KQkq - 1 2", game.toFen());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w Kq f6 0 3",
+            "8/8/8/8/8/8/8/4K2k b - - 99 120",
+    })
+    @DisplayName("Round Trip")
+    public void roundTrip(String fen) {
+        var game = ChessGame.fromFen(fen);
+        Assertions.assertEquals(fen, game.toFen());
+        Assertions.assertEquals(game, ChessGame.fromFen(game.toFen()));
+    }
+
+    @Test
+    @DisplayName("Restores En Passant")
+    public void restoresEnPassant() {
+        var game = ChessGame.fromFen("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3");
+        var capture = new ChessMove(new ChessPosition(5, 5), new ChessPosition(6, 6), null);
+        Assertions.assertTrue(game.validMoves(new ChessPosition(5, 5)).contains(capture));
+    }
+
+    @Test
+    @DisplayName("Move Counters Are Optional")
+    public void countersOptional() {
+        var game = ChessGame.fromFen("4k3/8/8/8/8/8/8/4K3 b - -");
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+        Assertions.assertEquals(0, game.getHalfmoveClock());
+        Assertions.assertEquals(1, game.getFullmoveNumber());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w KQkq - 0 1",
+            "rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNX w KQkq - 0 1",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KX - 0 1",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq e4 0 1",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - zero 1",
+    })
+    @DisplayName("Rejects Malformed FEN")
+    public void rejectsMalformed(String fen) {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(fen));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "4k3/8/8/8/8/8/3PQ3/4K3 w - e3 0 1",
+            "4k3/8/8/8/4p3/8/8/4K3 w - e3 0 1",
+            "4k3/8/8/8/8/8/8/4K3 w - e6 0 1",
+            "4k3/8/4q3/4p3/8/8/8/4K3 w - e6 0 1",
+            "4k3/8/8/4P3/8/8/8/4K3 b - e3 0 1",
+            "4k3/8/8/8/4p3/8/8/4K3 b - e6 0 1",
+            "4k3/8/8/8/8/8/8/4K3 w - e9 0 1",
+    })
+    @DisplayName("Rejects Impossible En Passant Squares")
+    public void rejectsEnPassant(String fen) {
+        var thrown = Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(fen));
+        Assertions.assertTrue(thrown.getMessage().contains("en passant"), thrown.getMessage());
+    }
+}
@@ -0,0 +1,61 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+
+public class GameCodecTests {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w Kq f6 0 3",
+            "8/8/8/8/8/8/8/4K2k b - - 99 120",
+    })
+    @DisplayName("Round Trip")
+    public void roundTrip(String fen) {
+        var game = ChessGame.fromFen(fen);
+        var encoded = GameCodec.encode(game);
+        Assertions.assertEquals(GameCodec.ENCODED_LENGTH, encoded.length);
+
+        var decoded = GameCodec.decode(encoded);
+        Assertions.assertEquals(game, decoded);
+        Assertions.assertEquals(fen, decoded.toFen());
+    }
+
+    @Test
+    @DisplayName("Rejects Invalid Bytes")
+    public void rejectsInvalid() {
+        var encoded = GameCodec.encode(new ChessGame());
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> GameCodec.decode(Arrays.copyOf(encoded, encoded.length - 1)));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> GameCodec.decode(Arrays.copyOf(encoded, encoded.length + 1)));
+
+        var wrongVersion = encoded.clone();
+        wrongVersion[0] = 99;
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(wrongVersion));
+
+        var badPiece = encoded.clone();
+        badPiece[1] = (byte) 0xFF;
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(badPiece));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {3, 45, 21})
+    @DisplayName("Rejects Impossible En Passant Squares")
+    public void rejectsEnPassant(int enPassantByte) {
+        // Byte 34 holds the en passant square plus one: c1, e6 with no black pawn on e5,
+        // and e3 while white is to move
+        var encoded = GameCodec.encode(new ChessGame());
+        encoded[34] = (byte) enPassantByte;
+        var thrown = Assertions.assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(encoded));
+        Assertions.assertTrue(thrown.getMessage().contains("en passant"), thrown.getMessage());
+    }
+}
@@ -0,0 +1,87 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class LegalMoveCacheTests {
+
+    @Test
+    @DisplayName("Counts Hits And Misses")
+    public void hitsAndMisses() {
+        var cache = new LegalMoveCache(1024);
+        Assertions.assertNull(cache.get(42L));
+        cache.put(42L, new int[]{1, 2, 3});
+        Assertions.assertArrayEquals(new int[]{1, 2, 3}, cache.get(42L));
+
+        Assertions.assertEquals(1, cache.hits());
+        Assertions.assertEquals(1, cache.misses());
+        Assertions.assertEquals(0.5, cache.hitRate());
+    }
+
+    @Test
+    @DisplayName("Stays Within Its Bound")
+    public void bounded() {
+        var cache = new LegalMoveCache(64);
+        for (long key = 0; key < 10_000; key++) {
+            cache.put(key * 0x9E3779B97F4A7C15L, new int[0]);
+        }
+        Assertions.assertTrue(cache.size() <= 64, "Cache grew past its maximum size");
+        Assertions.assertEquals(10_000 - cache.size(), cache.evictions());
+    }
+
+    @Test
+    @DisplayName("Evicts The Least Recently Used Entry")
+    public void leastRecentlyUsed() {
+        var cache = new LegalMoveCache(128);
+        // Same top bits, so all three keys land in one segment that holds two entries
+        cache.put(1L, new int[]{1});
+        cache.put(2L, new int[]{2});
+        cache.get(1L);
+        cache.put(3L, new int[]{3});
+
+        Assertions.assertNotNull(cache.get(1L));
+        Assertions.assertNull(cache.get(2L));
+        Assertions.assertNotNull(cache.get(3L));
+    }
+
+    @Test
+    @DisplayName("Cached Answers Match A Fresh Game")
+    public void cachedAnswersMatch() throws InvalidMoveException {
+        var game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 6), new ChessPosition(3, 6), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(2, 7), new ChessPosition(4, 7), null));
+        game.makeMove(new ChessMove(new ChessPosition(8, 4), new ChessPosition(4, 8), null));
+
+        long hits = ChessGame.legalMoveCache().hits();
+        for (int i = 0; i < 2; i++) {
+            Assertions.assertTrue(game.isInCheckmate(ChessGame.TeamColor.WHITE));
+            Assertions.assertFalse(game.isInStalemate(ChessGame.TeamColor.WHITE));
+            Assertions.assertTrue(game.validMoves(new ChessPosition(1, 5)).isEmpty());
+        }
+        Assertions.assertTrue(ChessGame.legalMoveCache().hits() > hits, "Repeated queries should hit the cache");
+    }
+
+    @Test
+    @DisplayName("Games Loaded Without A Hash Do Not Share Moves")
+    public void loadedGames() throws InvalidMoveException {
+        var gson = new Gson();
+        // Games stored before the hash was derived have no key, or a key of zero
+        var pinned = load(gson, "4k3/R7/8/8/8/8/8/4K3 b - - 0 1");
+        var open = load(gson, "4k3/8/8/8/8/8/8/4K3 b - - 0 1");
+
+        var e8 = ChessPosition.of(8, 5);
+        var e7 = ChessPosition.of(7, 5);
+        Assertions.assertFalse(pinned.validMoves(e8).contains(new ChessMove(e8, e7, null)));
+        open.makeMove(new ChessMove(e8, e7, null));
+        Assertions.assertEquals(ChessGame.fromFen("8/4k3/8/8/8/8/8/4K3 w - - 1 2"), open);
+    }
+
+    private static ChessGame load(Gson gson, String fen) {
+        var json = gson.toJsonTree(ChessGame.fromFen(fen)).getAsJsonObject();
+        json.getAsJsonObject("board").addProperty("key", 0L);
+        return gson.fromJson(json, ChessGame.class);
+    }
+}
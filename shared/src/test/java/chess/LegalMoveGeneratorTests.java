@@ -0,0 +1,83 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+public class LegalMoveGeneratorTests {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "8/8/8/KPp4r/8/8/8/7k w - c6 0 1",
+            "8/8/8/8/k2Pp2Q/8/8/7K b - d3 0 1",
+            "4k3/8/8/8/8/8/4r3/R3K2R w KQ - 0 1",
+            "4k3/4r3/8/8/1b6/8/3B4/4K3 w - - 0 1",
+            "4k3/8/5n2/8/8/8/4q3/4K3 w - - 0 1",
+            "4k3/8/8/8/1b6/8/3N4/4K2r w - - 0 1",
+            "8/8/3k4/4pP2/8/8/8/4K3 w - e6 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+    })
+    @DisplayName("Matches Trial Moves")
+    public void matchesTrialMoves(String fen) {
+        var game = ChessGame.fromFen(fen);
+        Assertions.assertEquals(trialMoves(game), generated(game), fen);
+    }
+
+    @Test
+    @DisplayName("Matches Trial Moves In Random Games")
+    public void randomGames() {
+        var random = new SplittableRandom(13);
+        var moves = new MoveList();
+        for (int gameNumber = 0; gameNumber < 50; gameNumber++) {
+            var game = new ChessGame();
+            for (int ply = 0; ply < 120 && game.generateLegalMoves(moves) > 0; ply++) {
+                Assertions.assertEquals(trialMoves(game), generated(game), game.toFen());
+                game.applyMove(moves.get(random.nextInt(moves.size())));
+            }
+        }
+    }
+
+    private static Set<Integer> generated(ChessGame game) {
+        var moves = new MoveList();
+        game.generateLegalMoves(moves);
+        var set = new HashSet<Integer>();
+        for (int i = 0; i < moves.size(); i++) {
+            Assertions.assertTrue(set.add(moves.get(i)), "duplicate move " + moves.move(i));
+        }
+        return set;
+    }
+
+    /**
+     * The moves that survive making each pseudo-legal move and looking for check
+     */
+    private static Set<Integer> trialMoves(ChessGame game) {
+        var color = game.getTeamTurn();
+        var board = game.getBoard();
+        var candidates = new MoveList();
+        MoveGenerator.teamMoves(board, color, candidates);
+        long pawns = board.pieces(color, ChessPiece.PieceType.PAWN);
+        while (pawns != 0 && game.enPassantSquare() != ChessGame.NO_SQUARE) {
+            int from = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+            MoveGenerator.enPassantMoves(color, from, game.enPassantSquare(), candidates);
+        }
+        MoveGenerator.castlingMoves(board, color, game.castlingRights(), candidates);
+
+        var legal = new HashSet<Integer>();
+        for (int i = 0; i < candidates.size(); i++) {
+            long undo = game.applyMove(candidates.get(i));
+            long king = board.pieces(color, ChessPiece.PieceType.KING);
+            if (!Attacks.isAttacked(board, Long.numberOfTrailingZeros(king), color.opponent())) {
+                legal.add(candidates.get(i));
+            }
+            game.undoMove(undo);
+        }
+        return legal;
+    }
+}
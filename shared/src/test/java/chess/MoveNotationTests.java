@@ -0,0 +1,93 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+
+public class MoveNotationTests {
+
+    static List<Perft.Position> positions() {
+        return Perft.STANDARD_POSITIONS;
+    }
+
+    @Test
+    @DisplayName("UCI")
+    public void uci() {
+        var move = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        Assertions.assertEquals(move, MoveNotation.parseUci("e2e4"));
+        Assertions.assertEquals("e2e4", MoveNotation.toUci(move));
+
+        var promotion = new ChessMove(new ChessPosition(7, 1), new ChessPosition(8, 2), ChessPiece.PieceType.KNIGHT);
+        Assertions.assertEquals(promotion, MoveNotation.parseUci("a7b8n"));
+        Assertions.assertEquals("a7b8n", MoveNotation.toUci(promotion));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "e2", "e2e9", "i2e4", "e7e8k", "e2e4qq"})
+    @DisplayName("Invalid UCI")
+    public void invalidUci(String uci) {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> MoveNotation.parseUci(uci));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1, e2e4, e4",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1, g1f3, Nf3",
+            "r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 2 3, f3e5, Nxe5",
+            "r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1, e1g1, O-O",
+            "r3k2r/8/8/8/8/8/8/R3K2R b KQkq - 0 1, e8c8, O-O-O",
+            "4k3/8/8/8/8/8/8/R4RK1 w - - 0 1, a1d1, Rad1",
+            "4k3/8/8/N7/8/8/8/N3K3 w - - 0 1, a1b3, N1b3",
+            "4N2k/8/8/8/2N1N3/8/8/4K3 w - - 0 1, e4d6, Ne4d6",
+            "3qk3/4P3/8/8/8/8/8/4K3 w - - 0 1, e7d8q, exd8=Q+",
+            "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3, e5f6, exf6",
+            "rnbqkbnr/pppp1ppp/8/4p3/6P1/5P2/PPPPP2P/RNBQKBNR b KQkq - 0 2, d8h4, Qh4#",
+            "6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1, a1a8, Ra8#",
+    })
+    @DisplayName("SAN")
+    public void san(String fen, String uci, String san) {
+        var game = ChessGame.fromFen(fen);
+        var move = MoveNotation.parseUci(uci);
+        Assertions.assertEquals(san, MoveNotation.toSan(game, move));
+        Assertions.assertEquals(move, MoveNotation.parseSan(game, san));
+        Assertions.assertEquals(fen, game.toFen(), "writing SAN should leave the game unchanged");
+    }
+
+    @Test
+    @DisplayName("Lenient SAN")
+    public void lenientSan() {
+        var game = ChessGame.fromFen("r3k2r/1P6/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        Assertions.assertEquals(MoveNotation.parseUci("e1g1"), MoveNotation.parseSan(game, "0-0"));
+        Assertions.assertEquals(MoveNotation.parseUci("e1c1"), MoveNotation.parseSan(game, "O-O-O!"));
+        Assertions.assertEquals(MoveNotation.parseUci("b7b8r"), MoveNotation.parseSan(game, "b8R"));
+        Assertions.assertEquals(MoveNotation.parseUci("a1a8"), MoveNotation.parseSan(game, "Ra1xa8+?"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "N", "Nf6", "Qd1", "e5", "O-O-O-O", "Kz9", "Bb2", "e8"})
+    @DisplayName("Invalid SAN")
+    public void invalidSan(String san) {
+        var game = ChessGame.fromFen("4k3/4P3/8/8/8/8/8/R3K2R w - - 0 1");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> MoveNotation.parseSan(game, san));
+    }
+
+    @ParameterizedTest
+    @MethodSource("positions")
+    @DisplayName("Every Legal Move Round Trips")
+    public void roundTrip(Perft.Position position) {
+        var game = position.game();
+        var moves = new MoveList();
+        game.generateLegalMoves(moves);
+        for (int i = 0; i < moves.size(); i++) {
+            var move = moves.move(i);
+            Assertions.assertEquals(move, MoveNotation.parseSan(game, MoveNotation.toSan(game, move)));
+            Assertions.assertEquals(move, MoveNotation.parseUci(MoveNotation.toUci(move)));
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.SplittableRandom;
+
+public class OpeningBookTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Lookup")
+    public void lookup() throws IOException, InvalidMoveException {
+        var e4 = MoveNotation.parseUci("e2e4");
+        var d4 = MoveNotation.parseUci("d2d4");
+        var e5 = MoveNotation.parseUci("e7e5");
+        var path = directory.resolve("book.bin");
+        new OpeningBook.Builder()
+                .addGame(List.of(e4, e5), 10)
+                .addGame(List.of(e4, MoveNotation.parseUci("c7c5")), 10)
+                .addGame(List.of(d4), 10)
+                .write(path);
+
+        var book = OpeningBook.open(path);
+        Assertions.assertEquals(4, book.size());
+
+        var start = new ChessGame();
+        Assertions.assertEquals(List.of(new OpeningBook.Entry(e4, 2), new OpeningBook.Entry(d4, 1)),
+                book.lookup(start));
+        Assertions.assertEquals(e4, book.bestMove(start));
+
+        start.makeMove(e4);
+        Assertions.assertEquals(2, book.lookup(start).size());
+        start.makeMove(e5);
+        Assertions.assertTrue(book.lookup(start).isEmpty());
+        Assertions.assertNull(book.bestMove(start));
+    }
+
+    @Test
+    @DisplayName("Transpositions Share Entries")
+    public void transpositions() throws IOException, InvalidMoveException {
+        var path = directory.resolve("book.bin");
+        var nf3 = MoveNotation.parseUci("g1f3");
+        var nf6 = MoveNotation.parseUci("g8f6");
+        var nc3 = MoveNotation.parseUci("b1c3");
+        var nc6 = MoveNotation.parseUci("b8c6");
+        var e4 = MoveNotation.parseUci("e2e4");
+        new OpeningBook.Builder()
+                .addGame(List.of(nf3, nf6, nc3, nc6, e4), 10)
+                .write(path);
+
+        var game = new ChessGame();
+        for (var move : List.of(nc3, nc6, nf3, nf6)) {
+            game.makeMove(move);
+        }
+        Assertions.assertEquals(e4, OpeningBook.open(path).bestMove(game));
+    }
+
+    @Test
+    @DisplayName("Random Moves Follow Weights")
+    public void randomMoves() throws IOException {
+        var path = directory.resolve("book.bin");
+        var start = new ChessGame();
+        var e4 = MoveNotation.parseUci("e2e4");
+        var d4 = MoveNotation.parseUci("d2d4");
+        new OpeningBook.Builder().add(start, e4, 3).add(start, d4, 1).write(path);
+
+        var book = OpeningBook.open(path);
+        var random = new SplittableRandom(20);
+        var counts = new HashMap<ChessMove, Integer>();
+        for (int i = 0; i < 4000; i++) {
+            counts.merge(book.randomMove(start, random), 1, Integer::sum);
+        }
+        Assertions.assertEquals(2, counts.size());
+        Assertions.assertTrue(counts.get(e4) > 2 * counts.get(d4), counts.toString());
+    }
+
+    @Test
+    @DisplayName("Many Positions")
+    public void manyPositions() throws IOException {
+        var path = directory.resolve("book.bin");
+        var builder = new OpeningBook.Builder();
+        var random = new SplittableRandom(1);
+        var games = new ArrayList<ChessGame>();
+        var moves = new MoveList();
+        var game = new ChessGame();
+        for (int i = 0; i < 2000; i++) {
+            if (game.generateLegalMoves(moves) == 0 || game.getFullmoveNumber() > 12) {
+                game = new ChessGame();
+                game.generateLegalMoves(moves);
+            }
+            var move = moves.move(random.nextInt(moves.size()));
+            builder.add(game, move, 1 + random.nextInt(100));
+            games.add(new ChessGame(game));
+            game.applyMove(move);
+        }
+        builder.write(path);
+
+        var book = OpeningBook.open(path);
+        for (var position : games) {
+            Assertions.assertNotNull(book.bestMove(position));
+        }
+        Assertions.assertTrue(book.lookup(0x1234_5678_9ABC_DEF0L).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Rejects Other Files")
+    public void rejectsOtherFiles() throws IOException {
+        var path = directory.resolve("other.bin");
+        Files.write(path, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13});
+        Assertions.assertThrows(IOException.class, () -> OpeningBook.open(path));
+    }
+}
@@ -0,0 +1,50 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class PackedMoveTests {
+
+    @Test
+    @DisplayName("Positions On The Board Are Shared")
+    public void positionsAreInterned() {
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                var position = ChessPosition.of(row, col);
+                Assertions.assertSame(position, ChessPosition.of(row, col));
+                Assertions.assertEquals(new ChessPosition(row, col), position);
+            }
+        }
+        Assertions.assertEquals(new ChessPosition(0, 9), ChessPosition.of(0, 9));
+    }
+
+    @Test
+    @DisplayName("Packed Moves Round Trip")
+    public void packRoundTrip() {
+        ChessPiece.PieceType[] promotions = {null, ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.KNIGHT};
+        for (var promotion : promotions) {
+            var move = new ChessMove(new ChessPosition(7, 2), new ChessPosition(8, 1), promotion);
+            var unpacked = ChessMove.of(move.pack());
+            Assertions.assertEquals(move, unpacked);
+            Assertions.assertEquals(move.hashCode(), unpacked.hashCode());
+            Assertions.assertSame(unpacked, ChessMove.of(move.pack()));
+        }
+    }
+
+    @Test
+    @DisplayName("Packing Rejects Positions Off The Board")
+    public void packOffBoard() {
+        var move = new ChessMove(new ChessPosition(0, 1), new ChessPosition(1, 1), null);
+        Assertions.assertThrows(IllegalArgumentException.class, move::pack);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {-1, 1 << 15, 7 << 12, Integer.MAX_VALUE})
+    @DisplayName("Unpacking Rejects Values That Are Not Moves")
+    public void unpackInvalid(int packedMove) {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessMove.of(packedMove));
+    }
+}
@@ -0,0 +1,77 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.HashSet;
+import java.util.List;
+
+public class PerftTests {
+
+    /**
+     * Deep enough to reach castling, en passant and promotions in every position while
+     * keeping the suite quick
+     */
+    private static final long MAX_NODES = 500_000;
+
+    /**
+     * Parallel perft goes deeper, so that the work is actually split across tasks
+     */
+    private static final long PARALLEL_MAX_NODES = 5_000_000;
+
+    static List<Perft.Position> positions() {
+        return Perft.STANDARD_POSITIONS;
+    }
+
+    @ParameterizedTest
+    @MethodSource("positions")
+    @DisplayName("Node Counts Match Published Results")
+    public void nodeCounts(Perft.Position position) {
+        var game = position.game();
+        for (int depth = 1; depth <= position.expected().length; depth++) {
+            long expected = position.expected()[depth - 1];
+            if (expected > MAX_NODES) {
+                break;
+            }
+            Assertions.assertEquals(expected, Perft.perft(game, depth),
+                    position.name() + " perft(" + depth + ")");
+        }
+        Assertions.assertEquals(position.game(), game, "perft should leave the game unchanged");
+    }
+
+    @ParameterizedTest
+    @MethodSource("positions")
+    @DisplayName("Parallel Perft Matches Published Results")
+    public void parallelNodeCounts(Perft.Position position) {
+        var game = position.game();
+        int depth = 1;
+        while (depth < position.expected().length && position.expected()[depth] <= PARALLEL_MAX_NODES) {
+            depth++;
+        }
+        Assertions.assertEquals(position.expected()[depth - 1], Perft.parallelPerft(game, depth),
+                position.name() + " perft(" + depth + ")");
+        Assertions.assertEquals(position.game(), game, "parallel perft should not touch the game");
+    }
+
+    @ParameterizedTest
+    @MethodSource("positions")
+    @DisplayName("validMoves Agrees With generateLegalMoves")
+    public void validMovesAgree(Perft.Position position) {
+        var game = position.game();
+        var moves = new MoveList();
+        game.generateLegalMoves(moves);
+
+        var fromValidMoves = new HashSet<ChessMove>();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                var piece = game.getBoard().getPiece(new ChessPosition(row, col));
+                if (piece != null && piece.getTeamColor() == game.getTeamTurn()) {
+                    fromValidMoves.addAll(game.validMoves(new ChessPosition(row, col)));
+                }
+            }
+        }
+        Assertions.assertEquals(new HashSet<>(moves.toList()), fromValidMoves);
+    }
+}
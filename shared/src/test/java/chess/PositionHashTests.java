@@ -0,0 +1,90 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class PositionHashTests {
+
+    @Test
+    @DisplayName("Transpositions Hash The Same")
+    public void transpositions() throws InvalidMoveException {
+        var first = new ChessGame();
+        makeMoves(first, 1, 2, 3, 3, 8, 7, 6, 6, 1, 7, 3, 6, 8, 2, 6, 3);
+        var second = new ChessGame();
+        makeMoves(second, 1, 7, 3, 6, 8, 2, 6, 3, 1, 2, 3, 3, 8, 7, 6, 6);
+
+        Assertions.assertEquals(first.getBoard(), second.getBoard());
+        Assertions.assertEquals(first.positionHash(), second.positionHash());
+        Assertions.assertEquals(first.getBoard().positionHash(), second.getBoard().positionHash());
+    }
+
+    @Test
+    @DisplayName("Hash Is Recomputed After Deserialization")
+    public void deserialization() {
+        var gson = new Gson();
+        var board = ChessBoard.fromFen("r3k3/8/8/8/8/8/8/4K3");
+        var json = gson.toJsonTree(board).getAsJsonObject();
+        Assertions.assertFalse(json.has("key"), "the hash is derived and should not be stored");
+
+        // Stored games may carry a stale hash from older versions
+        var stale = json.deepCopy();
+        stale.addProperty("key", 12345L);
+        for (JsonObject stored : new JsonObject[]{json, stale}) {
+            var restored = gson.fromJson(stored, ChessBoard.class);
+            Assertions.assertEquals(board, restored);
+            Assertions.assertEquals(board.positionHash(), restored.positionHash());
+            Assertions.assertEquals(board.hashCode(), restored.hashCode());
+        }
+    }
+
+    @Test
+    @DisplayName("Side To Move Changes The Hash")
+    public void sideToMove() {
+        var game = new ChessGame();
+        long white = game.positionHash();
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        Assertions.assertNotEquals(white, game.positionHash());
+        Assertions.assertEquals(new ChessGame().getBoard().positionHash(), game.getBoard().positionHash());
+    }
+
+    @Test
+    @DisplayName("Undo Restores The Hash")
+    public void undoRestoresHash() {
+        var game = new ChessGame();
+        long start = game.positionHash();
+        var moves = new MoveList();
+        game.generateLegalMoves(moves);
+        for (int i = 0; i < moves.size(); i++) {
+            long undo = game.applyMove(moves.get(i));
+            Assertions.assertNotEquals(start, game.positionHash());
+            game.undoMove(undo);
+            Assertions.assertEquals(start, game.positionHash());
+        }
+    }
+
+    @Test
+    @DisplayName("Board Hash Matches A Rebuilt Board")
+    public void incrementalMatchesRebuilt() throws InvalidMoveException {
+        var game = new ChessGame();
+        makeMoves(game, 2, 5, 4, 5, 7, 4, 5, 4, 4, 5, 5, 4);
+
+        var rebuilt = new ChessBoard();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                var position = new ChessPosition(row, col);
+                rebuilt.addPiece(position, game.getBoard().getPiece(position));
+            }
+        }
+        Assertions.assertEquals(rebuilt.positionHash(), game.getBoard().positionHash());
+    }
+
+    private static void makeMoves(ChessGame game, int... squares) throws InvalidMoveException {
+        for (int i = 0; i < squares.length; i += 4) {
+            game.makeMove(new ChessMove(new ChessPosition(squares[i], squares[i + 1]),
+                    new ChessPosition(squares[i + 2], squares[i + 3]), null));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+public class SearchEngineTests {
+
+    @Test
+    @DisplayName("Finds Mate In One")
+    public void mateInOne() {
+        var game = ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        var result = new SearchEngine().search(game, SearchEngine.Limits.depth(4));
+        Assertions.assertEquals(move(1, 1, 8, 1), result.bestMove());
+        Assertions.assertEquals(SearchEngine.MATE - 1, result.score());
+    }
+
+    @Test
+    @DisplayName("Finds Mate In Two")
+    public void mateInTwo() {
+        var game = ChessGame.fromFen("r2qkb1r/pp2nppp/3p4/2pNN1B1/2BnP3/3P4/PPP2PPP/R2bK2R w KQkq - 1 1");
+        var result = new SearchEngine().search(game, SearchEngine.Limits.depth(6));
+        Assertions.assertEquals(move(5, 4, 6, 6), result.bestMove());
+        Assertions.assertEquals(SearchEngine.MATE - 3, result.score());
+    }
+
+    @Test
+    @DisplayName("Takes A Hanging Queen")
+    public void hangingQueen() {
+        var game = ChessGame.fromFen("rnb1kbnr/pppp1ppp/8/4p1q1/3P4/2N5/PPP1PPPP/R1BQKBNR w KQkq - 0 1");
+        var result = new SearchEngine().search(game, SearchEngine.Limits.depth(4));
+        Assertions.assertEquals(move(1, 3, 5, 7), result.bestMove());
+        Assertions.assertTrue(result.score() > 500, "score " + result.score());
+    }
+
+    @Test
+    @DisplayName("Stops At The Node Budget")
+    public void nodeBudget() {
+        var result = new SearchEngine().search(new ChessGame(), SearchEngine.Limits.nodes(20_000));
+        Assertions.assertNotNull(result.bestMove());
+        Assertions.assertTrue(result.nodes() <= 20_000, "nodes " + result.nodes());
+        Assertions.assertTrue(result.depth() >= 1);
+    }
+
+    @Test
+    @DisplayName("Stops At The Time Budget")
+    public void timeBudget() {
+        long start = System.nanoTime();
+        var result = new SearchEngine().search(new ChessGame(), SearchEngine.Limits.time(Duration.ofMillis(200)));
+        long elapsed = System.nanoTime() - start;
+        Assertions.assertNotNull(result.bestMove());
+        Assertions.assertTrue(elapsed < Duration.ofSeconds(2).toNanos(), "took " + elapsed / 1_000_000 + " ms");
+    }
+
+    @Test
+    @DisplayName("Leaves The Game Unchanged")
+    public void gameUnchanged() {
+        var game = Perft.STANDARD_POSITIONS.get(1).game();
+        var fen = game.toFen();
+        var result = new SearchEngine().search(game, SearchEngine.Limits.depth(3));
+        Assertions.assertEquals(fen, game.toFen());
+        Assertions.assertTrue(game.validMoves(result.bestMove().getStartPosition()).contains(result.bestMove()));
+    }
+
+    @Test
+    @DisplayName("No Move When Checkmated Or Stalemated")
+    public void noMove() {
+        var mated = new SearchEngine().search(
+                ChessGame.fromFen("rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3"),
+                SearchEngine.Limits.depth(3));
+        Assertions.assertNull(mated.bestMove());
+        Assertions.assertEquals(-SearchEngine.MATE, mated.score());
+
+        var stalemate = new SearchEngine().search(ChessGame.fromFen("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1"),
+                SearchEngine.Limits.depth(3));
+        Assertions.assertNull(stalemate.bestMove());
+        Assertions.assertEquals(0, stalemate.score());
+    }
+
+    @Test
+    @DisplayName("Evaluation Is Symmetric")
+    public void symmetricEvaluation() {
+        var white = ChessBoard.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R");
+        var black = ChessBoard.fromFen("r3k2r/pppbbppp/2n2q1P/1P2p3/3pn3/BN2PNP1/P1PPQPB1/R3K2R");
+        Assertions.assertEquals(Evaluation.evaluate(white, ChessGame.TeamColor.WHITE),
+                Evaluation.evaluate(black, ChessGame.TeamColor.BLACK));
+        Assertions.assertEquals(0, Evaluation.evaluate(new ChessGame().getBoard(), ChessGame.TeamColor.WHITE));
+    }
+
+    private static ChessMove move(int fromRow, int fromCol, int toRow, int toCol) {
+        return new ChessMove(new ChessPosition(fromRow, fromCol), new ChessPosition(toRow, toCol), null);
+    }
+}
@@ -0,0 +1,52 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.SplittableRandom;
+
+public class StatusTests {
+
+    @ParameterizedTest
+    @CsvSource({
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1, ONGOING",
+            "rnbqkbnr/ppp2ppp/3p4/4p2Q/4P3/8/PPPP1PPP/RNB1KBNR b KQkq - 1 3, ONGOING",
+            "rnbqkbnr/pppp1ppp/8/4p2Q/4P3/8/PPPP1PPP/RNB1KBNR b KQkq - 1 2, ONGOING",
+            "rnbqkbnr/ppppp2p/5p2/6pQ/4P3/8/PPPP1PPP/RNB1KBNR b KQkq - 1 3, CHECKMATE",
+            "rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3, CHECKMATE",
+            "rnbqkbnr/ppp1pppp/8/1B1p4/4P3/8/PPPP1PPP/RNBQK1NR b KQkq - 1 2, CHECK",
+            "7k/5Q2/6K1/8/8/8/8/8 b - - 0 1, STALEMATE",
+            "k7/2Q5/1K6/8/8/8/8/8 b - - 0 1, STALEMATE",
+            "6rk/5Npp/8/8/8/8/8/6K1 b - - 0 1, CHECKMATE",
+    })
+    @DisplayName("Status")
+    public void status(String fen, ChessGame.GameStatus expected) {
+        Assertions.assertEquals(expected, ChessGame.fromFen(fen).status());
+    }
+
+    @Test
+    @DisplayName("Status Agrees With Check, Checkmate And Stalemate")
+    public void agreesWithQueries() {
+        var random = new SplittableRandom(7);
+        var moves = new MoveList();
+        for (int gameNumber = 0; gameNumber < 50; gameNumber++) {
+            var game = new ChessGame();
+            while (true) {
+                var color = game.getTeamTurn();
+                var expected = game.isInCheckmate(color) ? ChessGame.GameStatus.CHECKMATE
+                        : game.isInStalemate(color) ? ChessGame.GameStatus.STALEMATE
+                        : game.isDraw() ? ChessGame.GameStatus.DRAW
+                        : game.isInCheck(color) ? ChessGame.GameStatus.CHECK
+                        : ChessGame.GameStatus.ONGOING;
+                Assertions.assertEquals(expected, game.status(), game.toFen());
+                if (game.generateLegalMoves(moves) == 0 || game.getFullmoveNumber() > 100) {
+                    break;
+                }
+                game.applyMove(moves.get(random.nextInt(moves.size())));
+            }
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.function.IntUnaryOperator;
+
+public class TablebaseTests {
+
+    @TempDir
+    static Path directory;
+
+    private static Tablebase queenEnding;
+    private static Tablebase rookEnding;
+    private static Tablebase pawnEnding;
+
+    @BeforeAll
+    public static void generate() throws IOException {
+        Tablebase.generate("KQvK", directory.resolve("KQvK.tb"));
+        Tablebase.generate("KRvK", directory.resolve("KRvK.tb"));
+        Tablebase.generate("KPvK", directory.resolve("KPvK.tb"));
+        queenEnding = Tablebase.open(directory.resolve("KQvK.tb"));
+        rookEnding = Tablebase.open(directory.resolve("KRvK.tb"));
+        pawnEnding = Tablebase.open(directory.resolve("KPvK.tb"));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "KRvK, 7k/8/6K1/8/8/8/8/R7 w - - 0 1, WIN, 1",
+            "KRvK, R6k/8/6K1/8/8/8/8/8 b - - 0 1, LOSS, 0",
+            "KRvK, 7k/8/8/8/8/8/8/R5K1 w - - 0 1, WIN, 19",
+            "KRvK, 8/8/8/8/8/6k1/7R/K7 b - - 0 1, DRAW, 0",
+            "KPvK, 4k3/8/4K3/4P3/8/8/8/8 b - - 0 1, LOSS, 24",
+            "KPvK, 4k3/8/4P3/4K3/8/8/8/8 w - - 0 1, DRAW, 0",
+            "KPvK, 4k3/8/4P3/4K3/8/8/8/8 b - - 0 1, DRAW, 0",
+            "KPvK, k7/8/1K6/P7/8/8/8/8 w - - 0 1, DRAW, 0",
+    })
+    @DisplayName("Known Positions")
+    public void knownPositions(String material, String fen, Tablebase.Outcome outcome, int plies) {
+        var table = material.equals("KRvK") ? rookEnding : pawnEnding;
+        Assertions.assertEquals(new Tablebase.Probe(outcome, plies), table.probe(ChessGame.fromFen(fen)));
+    }
+
+    @Test
+    @DisplayName("Longest Rook Mate")
+    public void longestRookMate() throws IOException {
+        byte[] table = Files.readAllBytes(directory.resolve("KRvK.tb"));
+        int longest = 0;
+        for (int i = table.length - Tablebase.tableSize(Tablebase.parseMaterial("KRvK")); i < table.length; i++) {
+            longest = Math.max(longest, table[i]);
+        }
+        Assertions.assertEquals(31, longest, "mate with king and rook takes at most 16 moves");
+    }
+
+    @Test
+    @DisplayName("Values Agree With Their Children")
+    public void consistent() {
+        var random = new SplittableRandom(21);
+        var moves = new MoveList();
+        int checked = 0;
+        while (checked < 2000) {
+            var game = randomPosition(random);
+            if (game == null) {
+                continue;
+            }
+            checked++;
+            assertConsistent(pawnEnding, game, moves);
+        }
+    }
+
+    @Test
+    @DisplayName("Positions On The Long Diagonal Agree With Their Children")
+    public void diagonalPositions() {
+        // Flipping the board along a1-h8 leaves these positions unchanged, so their
+        // neighbours' move counters are recounted rather than counted down
+        var moves = new MoveList();
+        int checked = 0;
+        int[] pieces = Tablebase.parseMaterial("KRvK");
+        for (int whiteKing = 0; whiteKing < 64; whiteKing += 9) {
+            for (int rook = 0; rook < 64; rook += 9) {
+                for (int blackKing = 0; blackKing < 64; blackKing += 9) {
+                    for (var color : ChessGame.TeamColor.values()) {
+                        var game = position(pieces, new int[]{whiteKing, rook, blackKing}, color);
+                        if (game != null) {
+                            checked++;
+                            assertConsistent(rookEnding, game, moves);
+                        }
+                    }
+                }
+            }
+        }
+        Assertions.assertTrue(checked > 100, "only " + checked + " positions");
+    }
+
+    @Test
+    @DisplayName("Mirror Images Share A Value")
+    public void mirrorImages() {
+        var random = new SplittableRandom(462);
+        int[] pieces = Tablebase.parseMaterial("KRvK");
+        for (int i = 0; i < 500; i++) {
+            int[] squares = {random.nextInt(64), random.nextInt(64), random.nextInt(64)};
+            var color = random.nextBoolean() ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+            var game = position(pieces, squares, color);
+            if (game == null) {
+                continue;
+            }
+            var probe = rookEnding.probe(game);
+            for (int[] map : new int[][]{mirror(square -> square ^ 7), mirror(square -> square ^ 56),
+                    mirror(square -> square % 8 * 8 + square / 8)}) {
+                var image = position(pieces, new int[]{map[squares[0]], map[squares[1]], map[squares[2]]}, color);
+                Assertions.assertEquals(probe, rookEnding.probe(image), game.toFen());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Table Sizes")
+    public void tableSizes() {
+        Assertions.assertEquals(2 * 462 * 64, Tablebase.tableSize(Tablebase.parseMaterial("KRvK")));
+        Assertions.assertEquals(2 * 1806 * 64, Tablebase.tableSize(Tablebase.parseMaterial("KPvK")));
+        Assertions.assertEquals(2 * 462 * 64 * 64 * 64, Tablebase.tableSize(Tablebase.parseMaterial("KRBvKN")));
+        Assertions.assertEquals(2 * 1806 * 64 * 64 * 64, Tablebase.tableSize(Tablebase.parseMaterial("KPPvKR")));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"KQ", "KQvKvK", "QvK", "KKvK", "KxvK", "KQRvKNB"})
+    @DisplayName("Invalid Material")
+    public void invalidMaterial(String material) {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> Tablebase.generate(material, directory.resolve("invalid.tb")));
+    }
+
+    @Test
+    @DisplayName("Pawns On Both Sides")
+    public void pawnsOnBothSides() throws InvalidMoveException {
+        // After e4, black may answer d4xe3 en passant, a move the position's table byte
+        // could not account for, so tables with pawns on both sides are refused outright
+        var game = ChessGame.fromFen("8/8/8/8/3p4/8/4P3/K6k w - - 0 1");
+        game.makeMove(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        Assertions.assertTrue(game.validMoves(ChessPosition.of(4, 4))
+                .contains(new ChessMove(ChessPosition.of(4, 4), ChessPosition.of(3, 5), null)));
+
+        var rejected = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> Tablebase.generate("KPvKP", directory.resolve("KPvKP.tb")));
+        Assertions.assertTrue(rejected.getMessage().contains("en passant"), rejected.getMessage());
+        Assertions.assertNull(pawnEnding.probe(game));
+    }
+
+    @Test
+    @DisplayName("Other Positions Are Not Probed")
+    public void otherPositions() {
+        Assertions.assertNull(rookEnding.probe(new ChessGame()));
+        Assertions.assertNull(rookEnding.probe(ChessGame.fromFen("7k/8/6K1/8/8/8/8/Q7 w - - 0 1")));
+        Assertions.assertNull(rookEnding.probe(ChessGame.fromFen("7k/8/6K1/8/8/8/8/4K2R w K - 0 1")));
+        Assertions.assertEquals("KRvK", rookEnding.material());
+    }
+
+    @Test
+    @DisplayName("Rejects Other Files")
+    public void rejectsOtherFiles() throws IOException {
+        var path = directory.resolve("other.tb");
+        Files.write(path, new byte[64]);
+        Assertions.assertThrows(IOException.class, () -> Tablebase.open(path));
+    }
+
+    /**
+     * Checks a position's value against the best of its moves' values
+     */
+    private static void assertConsistent(Tablebase table, ChessGame game, MoveList moves) {
+        var probe = table.probe(game);
+        game.generateLegalMoves(moves);
+        if (moves.isEmpty()) {
+            var expected = game.isInCheck(game.getTeamTurn()) ? Tablebase.Outcome.LOSS : Tablebase.Outcome.DRAW;
+            Assertions.assertEquals(new Tablebase.Probe(expected, 0), probe, game.toFen());
+            return;
+        }
+        int best = Integer.MIN_VALUE;
+        for (int i = 0; i < moves.size(); i++) {
+            var child = new ChessGame(game);
+            child.applyMove(moves.get(i));
+            best = Math.max(best, score(childProbe(child)));
+        }
+        Assertions.assertEquals(expected(best), probe, game.toFen());
+    }
+
+    /**
+     * @return a legal position with the given pieces on the given squares, or null
+     */
+    private static ChessGame position(int[] pieces, int[] squares, ChessGame.TeamColor color) {
+        var game = new ChessGame();
+        var board = game.getBoard();
+        board.clear();
+        for (int i = 0; i < pieces.length; i++) {
+            if (board.pieceAt(squares[i]) != ChessBoard.EMPTY) {
+                return null;
+            }
+            board.put(squares[i], pieces[i]);
+        }
+        game.setBoard(board);
+        game.setFenState(0, ChessGame.NO_SQUARE, 0, 1);
+        game.setTeamTurn(color);
+        return game.isInCheck(color.opponent()) ? null : game;
+    }
+
+    private static int[] mirror(IntUnaryOperator map) {
+        int[] squares = new int[64];
+        for (int square = 0; square < 64; square++) {
+            squares[square] = map.applyAsInt(square);
+        }
+        return squares;
+    }
+
+    /**
+     * @return a random legal king and pawn against king position, or null
+     */
+    private static ChessGame randomPosition(SplittableRandom random) {
+        int whiteKing = random.nextInt(64);
+        int pawn = 8 + random.nextInt(48);
+        int blackKing = random.nextInt(64);
+        if (whiteKing == pawn || whiteKing == blackKing || pawn == blackKing
+                || Attacks.king(whiteKing) == (Attacks.king(whiteKing) | (1L << blackKing))) {
+            return null;
+        }
+        var color = random.nextBoolean() ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+        var game = new ChessGame();
+        var board = game.getBoard();
+        board.clear();
+        board.put(whiteKing, ChessBoard.pieceIndex(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        board.put(pawn, ChessBoard.pieceIndex(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+        board.put(blackKing, ChessBoard.pieceIndex(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        game.setBoard(board);
+        game.setTeamTurn(color);
+        return game.isInCheck(color.opponent()) ? null : game;
+    }
+
+    /**
+     * Probes a position after a move from the pawn ending, which may have promoted the
+     * pawn or captured it
+     */
+    private static Tablebase.Probe childProbe(ChessGame child) {
+        if (child.isInsufficientMaterial()) {
+            return new Tablebase.Probe(Tablebase.Outcome.DRAW, 0);
+        }
+        for (var table : new Tablebase[]{pawnEnding, queenEnding, rookEnding}) {
+            var probe = table.probe(child);
+            if (probe != null) {
+                return probe;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return how good a child position is for the team that moved into it: faster wins
+     * first, then draws, then slower losses
+     */
+    private static int score(Tablebase.Probe probe) {
+        return switch (probe.outcome()) {
+            case LOSS -> 1000 - probe.plies();
+            case DRAW -> 0;
+            case WIN -> -1000 + probe.plies();
+        };
+    }
+
+    /**
+     * @return the outcome one ply before the best child
+     */
+    private static Tablebase.Probe expected(int best) {
+        if (best > 0) {
+            return new Tablebase.Probe(Tablebase.Outcome.WIN, 1000 - best + 1);
+        }
+        if (best < 0) {
+            return new Tablebase.Probe(Tablebase.Outcome.LOSS, best + 1000 + 1);
+        }
+        return new Tablebase.Probe(Tablebase.Outcome.DRAW, 0);
+    }
+}